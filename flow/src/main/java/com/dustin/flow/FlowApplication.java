@@ -2,9 +2,11 @@ package com.dustin.flow;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 @EnableScheduling
+@ConfigurationPropertiesScan
 @SpringBootApplication
 public class FlowApplication {
 
@@ -0,0 +1,52 @@
+package com.dustin.flow.admission;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 대기열 허용(admission) 설정입니다.
+ * 대기열마다 목표 허용 속도(targetRate)로 채워지는 토큰 버킷을 두고, 버킷에 쌓인 토큰과
+ * 남은 자리(maxActiveUsers - 현재 활성 사용자) 중 작은 값만큼 허용합니다.
+ * 주기(tickInterval)는 허용 속도가 아니라 허용이 얼마나 고르게 나뉘어 일어나는지만 결정합니다.
+ * targetRate, burst, maxActiveUsers는 대기열별 정책(QueuePolicyStore)에 값이 없을 때의 기본값입니다.
+ * FAIR 모드에서는 대기열별 허용 속도 대신 globalRate를 대기열 가중치에 따라 나눕니다.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "queue.admission")
+public class AdmissionProperties {
+
+    // 허용 인원을 정하는 방식
+    private Mode mode = Mode.PER_QUEUE;
+
+    // FAIR 모드에서 전체 대기열에 나눌 사이트 전체 허용 속도 (초당 사용자 수, 각 노드는 소유한 대기열의 가중치 비율만큼 사용합니다)
+    private double globalRate = 100;
+
+    // 허용 작업 주기 (짧을수록 허용이 고르게 분산됩니다)
+    private Duration tickInterval = Duration.ofMillis(200);
+
+    // 한 주기에 사용할 수 있는 최대 시간. 넘기면 아직 시작하지 않은 대기열은 다음 주기로 넘깁니다.
+    private Duration tickBudget = Duration.ofSeconds(1);
+
+    // 한 주기에 동시에 실행할 허용 스크립트 수
+    private int concurrency = 16;
+
+    // 목표 허용 속도 (초당 사용자 수)
+    private double targetRate = 10;
+
+    // 토큰 버킷 크기. 한동안 허용이 없었을 때 한 번에 허용할 수 있는 최대 인원입니다.
+    private long burst = 10;
+
+    // 대기열별 동시 활성 사용자 상한 (0이면 제한 없음)
+    private long maxActiveUsers = 0;
+
+    public enum Mode {
+        // 대기열마다 각자의 허용 속도(토큰 버킷)로 허용합니다.
+        PER_QUEUE,
+        // 사이트 전체 허용 속도(globalRate)를 대기열 가중치에 따라 deficit round robin으로 나눕니다.
+        FAIR
+    }
+}
@@ -0,0 +1,375 @@
+package com.dustin.flow.admission;
+
+import com.dustin.flow.cluster.QueueOwnership;
+import com.dustin.flow.cluster.QueueOwnership.QueueLease;
+import com.dustin.flow.policy.QueuePolicy;
+import com.dustin.flow.policy.QueuePolicyStore;
+import com.dustin.flow.service.UserQueueService;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.FixedDelayTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * AdmissionScheduler는 주기적으로 각 대기열에서 사용자를 허용합니다.
+ * 고정 인원이 아니라 보호 대상 사이트가 수용할 수 있는 만큼(동시 활성 사용자 상한의 남은 자리)만 허용하므로,
+ * 허용 인원이 실제 수용 능력을 따라갑니다.
+ * 허용 속도는 대기열별 토큰 버킷이 제한하므로, 짧은 주기로 조금씩 허용하여 주기 경계마다 사용자가 몰리지 않게 합니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AdmissionScheduler implements SchedulingConfigurer {
+
+    // 애플리케이션이 시작된 뒤 첫 주기까지 기다리는 시간
+    private static final Duration INITIAL_DELAY = Duration.ofSeconds(5);
+
+    private final UserQueueService userQueueService;
+
+    private final AdmissionProperties admissionProperties;
+
+    // 대기열별 허용 작업을 맡을 노드를 정합니다.
+    private final QueueOwnership queueOwnership;
+
+    // 대기열별 허용 정책을 제공합니다.
+    private final QueuePolicyStore queuePolicyStore;
+
+    // 허용 주기의 소요 시간과 지연을 기록합니다.
+    private final MeterRegistry meterRegistry;
+
+    // 이전 주기가 실행 중인지 여부 (주기가 겹치지 않게 합니다)
+    private final AtomicBoolean ticking = new AtomicBoolean();
+
+    // 시간 예산을 넘겨 다음 주기로 넘긴 대기열
+    private final Set<String> carriedOver = ConcurrentHashMap.newKeySet();
+
+    // FAIR 모드에서 대기열별 허용 몫을 나눕니다.
+    private final DeficitRoundRobin deficitRoundRobin = new DeficitRoundRobin();
+
+    // FAIR 모드에서 아직 사용하지 않은 허용 몫의 소수 부분과 마지막으로 적립한 시각
+    private double globalCredit;
+    private long lastBudgetAt;
+
+    // 마지막 주기가 끝난 시각 (System.nanoTime 기준, 0이면 아직 없음)
+    private volatile long lastTickFinishedAt;
+
+    // 스케줄러 활성화 여부를 결정하는 설정 값
+    @Value("${scheduler.enabled}")
+    private Boolean scheduling = false;
+
+    /**
+     * 대기열 목록 도입 이전에 만들어진 대기열도 허용 대상이 되도록 시작 시 한 번 대기열 목록을 채웁니다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void registerExistingQueues() {
+        if (!scheduling) {
+            return;
+        }
+        userQueueService.registerExistingQueues()
+                .subscribe(added -> log.info("Registered %d existing queues".formatted(added)));
+    }
+
+    /**
+     * 허용 작업을 queue.admission.tick-interval 간격으로 등록합니다.
+     * 주기를 @Scheduled의 문자열 속성 대신 바인딩된 Duration으로 정하므로 "200ms", "1s" 같은 값을 그대로 쓸 수 있습니다.
+     */
+    @Override
+    public void configureTasks(final ScheduledTaskRegistrar registrar) {
+        registrar.addFixedDelayTask(new FixedDelayTask(this::scheduleAllowUser, admissionProperties.getTickInterval(), INITIAL_DELAY));
+    }
+
+    /**
+     * 스케줄러로 주기적으로 호출되어 대기열에서 사용자를 허용하는 작업을 수행합니다.
+     * 주기는 queue.admission.tick-interval 설정을 따릅니다(configureTasks).
+     * 작업은 비동기로 실행되므로, 이전 주기가 아직 끝나지 않았다면 이번 주기는 건너뛰어 주기가 겹치지 않게 합니다.
+     * 허용 스크립트가 응답하지 않아도 다음 주기가 계속 밀리지 않도록, 주기는 queue.admission.tick-budget이 지나면 중단됩니다(admitAll).
+     */
+    public void scheduleAllowUser() {
+        if (!scheduling) {
+            log.debug("passed scheduling...");
+            return; // 스케줄링이 비활성화된 경우 작업을 건너뜁니다.
+        }
+        if (!ticking.compareAndSet(false, true)) {
+            meterRegistry.counter("queue.admission.tick.skipped").increment();
+            log.debug("skipped scheduling, previous tick is still running...");
+            return;
+        }
+        log.debug("called scheduling...");
+
+        var startedAt = System.nanoTime();
+        if (lastTickFinishedAt != 0) {
+            // 이전 주기가 끝나고 tick-interval이 지난 시점보다 얼마나 늦게 시작했는지 기록합니다.
+            var lag = startedAt - lastTickFinishedAt - admissionProperties.getTickInterval().toNanos();
+            meterRegistry.timer("queue.admission.tick.lag").record(Math.max(0, lag), TimeUnit.NANOSECONDS);
+        }
+        admitAll()
+                .doFinally(signal -> {
+                    lastTickFinishedAt = System.nanoTime();
+                    meterRegistry.timer("queue.admission.tick.duration").record(lastTickFinishedAt - startedAt, TimeUnit.NANOSECONDS);
+                    ticking.set(false);
+                })
+                .subscribe(tuple -> {
+                }, e -> log.error("Admission tick failed", e)); // 작업을 비동기적으로 실행
+    }
+
+    /**
+     * 대기열 목록에 있는 대기열 중 이 노드가 소유한 대기열에서 사용자를 허용합니다.
+     * 노드가 여러 개여도 대기열마다 한 노드만 허용 작업을 수행합니다.
+     * 동시에 실행하는 스크립트 수는 queue.admission.concurrency로 제한되며, queue.admission.tick-budget이 지난 뒤에는
+     * 새 대기열을 시작하지 않고 다음 주기로 넘깁니다. 넘겨진 대기열은 다음 주기에 가장 먼저 처리되므로
+     * 대기열이 많아도 특정 대기열이 계속 밀려나지 않습니다.
+     * 응답하지 않는 스크립트가 있으면 시간 예산이 지난 시점에 주기를 중단하고, 끝나지 않은 대기열을 모두 다음 주기로 넘깁니다.
+     * @return 대기열 이름과 허용된 사용자 수를 나타내는 Flux
+     */
+    Flux<Tuple2<String, Long>> admitAll() {
+        var tick = new Tick(System.nanoTime() + admissionProperties.getTickBudget().toNanos());
+        var leases = userQueueService.getActiveQueues()
+                .collectList()
+                .flatMapMany(queues -> {
+                    var ordered = carriedOverFirst(queues);
+                    tick.queues = queues;
+                    tick.pending().addAll(ordered);
+                    return queueOwnership.claim(Flux.fromIterable(ordered)); // 이 노드가 소유권을 얻은 대기열만 허용합니다.
+                });
+        var admitted = admissionProperties.getMode() == AdmissionProperties.Mode.FAIR
+                ? admitFairly(leases, tick)
+                : admitEach(leases, tick);
+        return admitted
+                .doOnNext(tuple -> {
+                    if (tuple.getT2() > 0) { // 주기가 짧으므로 실제로 허용한 경우에만 로깅합니다.
+                        log.info("Allowed %d members of %s queue".formatted(tuple.getT2(), tuple.getT1()));
+                    }
+                })
+                .timeout(admissionProperties.getTickBudget())
+                .onErrorResume(TimeoutException.class, e -> {
+                    // 소유하지 않았거나 허용할 몫이 없던 대기열이 섞여 있어도 다음 주기의 처리 순서만 앞당겨질 뿐입니다.
+                    carriedOver.addAll(tick.pending());
+                    meterRegistry.counter("queue.admission.tick.timeout").increment();
+                    log.warn("Admission tick exceeded its budget of %s, carrying over %d queues"
+                            .formatted(admissionProperties.getTickBudget(), tick.pending().size()));
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * 대기열마다 토큰 버킷과 남은 자리가 허용하는 만큼 사용자를 허용합니다.
+     * 허용 속도, 버킷 크기, 동시 활성 사용자 상한, 활성 사용자 유지 시간(토큰 유효 기간)은 대기열별 정책을 따르며, 정책 변경은 다음 주기부터 적용됩니다.
+     */
+    private Flux<Tuple2<String, Long>> admitEach(final Flux<QueueLease> leases, final Tick tick) {
+        return leases.flatMap(lease -> {
+            if (isOverBudget(lease, tick.deadline())) {
+                return Mono.empty();
+            }
+            return queuePolicyStore.get(lease.queue())
+                    .filter(policy -> !policy.paused()) // 일시 정지된 대기열은 허용하지 않습니다.
+                    .flatMap(policy -> userQueueService.allowUser(lease.queue(), policy.toLimit(lease.fencingToken())))
+                    .map(allowed -> Tuples.of(lease.queue(), allowed))
+                    .doOnSuccess(result -> tick.pending().remove(lease.queue()));
+        }, admissionProperties.getConcurrency());
+    }
+
+    /**
+     * 사이트 전체 허용 속도 중 이 노드의 몫을 대기열 가중치에 따라 deficit round robin으로 나누어 허용합니다.
+     * 이 노드의 몫은 전체 활성 대기열의 가중치 합 중 이 노드가 소유한 대기열의 가중치 비율이므로,
+     * 대기열이 어느 노드에 있든 각 대기열은 가중치에 비례하는 몫을 받고, 노드 전체의 허용 인원은 globalRate를 넘지 않습니다.
+     * 대기열별 허용 속도(토큰 버킷)는 사용하지 않고 동시 활성 사용자 상한만 적용합니다.
+     * 할당받고 허용을 시도하지 못한 몫은 주기가 끝날 때(시간 초과로 중단된 경우 포함) 정산합니다(finish).
+     */
+    private Flux<Tuple2<String, Long>> admitFairly(final Flux<QueueLease> leases, final Tick tick) {
+        return leases.flatMap(lease -> queuePolicyStore.get(lease.queue())
+                        .filter(policy -> !policy.paused()) // 일시 정지된 대기열은 허용하지 않습니다.
+                        .zipWith(userQueueService.getWaitingCount(lease.queue()),
+                                (policy, waiting) -> new FairCandidate(lease, policy, waiting)),
+                        admissionProperties.getConcurrency())
+                .collectList()
+                .zipWhen(candidates -> activeWeight(tick.queues))
+                .flatMapMany(tuple -> {
+                    var candidates = tuple.getT1();
+                    var demands = new HashMap<String, DeficitRoundRobin.Demand>();
+                    candidates.forEach(candidate -> demands.put(candidate.lease().queue(),
+                            new DeficitRoundRobin.Demand(candidate.policy().weight(), candidate.waiting())));
+                    var ownedWeight = candidates.stream().mapToDouble(candidate -> candidate.policy().weight()).sum();
+                    var share = tuple.getT2() > 0
+                            ? admissionProperties.getGlobalRate() * Math.min(1.0, ownedWeight / tuple.getT2())
+                            : 0.0;
+                    var allocations = allocate(tick, demands, share);
+                    return Flux.fromIterable(candidates)
+                            .filter(candidate -> allocations.containsKey(candidate.lease().queue()))
+                            .flatMap(candidate -> {
+                                var lease = candidate.lease();
+                                if (isOverBudget(lease, tick.deadline())) {
+                                    return Mono.empty(); // 할당받은 몫은 주기가 끝날 때 돌려줍니다.
+                                }
+                                var limit = candidate.policy().toFairLimit(allocations.get(lease.queue()), lease.fencingToken());
+                                return userQueueService.allowUser(lease.queue(), limit)
+                                        .doOnNext(allowed -> settle(tick, lease.queue(), allowed))
+                                        .map(allowed -> Tuples.of(lease.queue(), allowed))
+                                        .doOnSuccess(result -> tick.pending().remove(lease.queue()));
+                            }, admissionProperties.getConcurrency());
+                })
+                .doFinally(signal -> finish(tick)); // 시간 초과로 중단된 경우에도 호출됩니다.
+    }
+
+    /**
+     * 전체 활성 대기열 중 일시 정지되지 않은 대기열의 가중치 합을 반환합니다. 정책은 노드별 캐시에서 읽습니다.
+     */
+    private Mono<Double> activeWeight(final List<String> queues) {
+        return Flux.fromIterable(queues)
+                .flatMap(queuePolicyStore::get, admissionProperties.getConcurrency())
+                .filter(policy -> !policy.paused())
+                .map(QueuePolicy::weight)
+                .reduce(0.0, Double::sum);
+    }
+
+    /**
+     * 이 노드의 허용 몫을 대기열에 나누고, 주기가 끝날 때 정산할 수 있도록 할당 전 상태와 할당을 기록합니다.
+     * @param share 이 노드의 허용 속도 (초당 사용자 수)
+     */
+    private Map<String, Long> allocate(final Tick tick, final Map<String, DeficitRoundRobin.Demand> demands, final double share) {
+        synchronized (tick) {
+            tick.snapshot = deficitRoundRobin.snapshot();
+            tick.budget = nextGlobalBudget(share);
+            var allocations = deficitRoundRobin.allocate(demands, tick.budget);
+            tick.unsettled.putAll(allocations);
+            return allocations;
+        }
+    }
+
+    /**
+     * 허용을 마친 대기열의 할당을 정산합니다.
+     */
+    private void settle(final Tick tick, final String queue, final long allowed) {
+        synchronized (tick) {
+            var allocated = tick.unsettled.remove(queue);
+            if (allocated != null) {
+                deficitRoundRobin.settle(queue, allocated, allowed);
+                tick.admitted |= allowed > 0;
+            }
+        }
+    }
+
+    /**
+     * FAIR 모드 주기를 마무리합니다. allocate는 할당과 동시에 몫을 차감하므로, 허용을 시도하지 못한 대기열
+     * (시간 예산 초과, 시간 초과로 중단)에는 몫을 돌려주어 다음 주기에 먼저 보상되게 합니다.
+     * 아무도 허용하지 못한 주기는 몫 적립과 순서, 사용한 예산을 모두 할당 전으로 되돌립니다.
+     */
+    private void finish(final Tick tick) {
+        synchronized (tick) {
+            if (tick.snapshot == null) {
+                return;
+            }
+            if (tick.admitted) {
+                tick.unsettled.forEach(deficitRoundRobin::refund);
+            } else {
+                deficitRoundRobin.restore(tick.snapshot);
+                returnGlobalBudget(tick.budget);
+            }
+            tick.unsettled.clear();
+            tick.snapshot = null;
+        }
+    }
+
+    /**
+     * 지난 주기 이후 흐른 시간만큼 이 노드의 허용 몫(share)을 적립하고, 정수 부분을 이번 주기 예산으로 꺼냅니다.
+     * 적립은 최대 1초분까지만 하므로 한동안 대기열이 비어 있다가 몰려도 globalRate를 크게 넘지 않습니다.
+     */
+    private synchronized long nextGlobalBudget(final double share) {
+        var now = System.nanoTime();
+        var elapsed = lastBudgetAt == 0 ? admissionProperties.getTickInterval().toNanos() : now - lastBudgetAt;
+        lastBudgetAt = now;
+        globalCredit = Math.min(Math.max(1.0, share), globalCredit + share * elapsed / 1_000_000_000.0);
+        var budget = (long) globalCredit;
+        globalCredit -= budget;
+        return budget;
+    }
+
+    /**
+     * 사용하지 못한 예산을 적립된 몫으로 되돌립니다. 다음 주기의 적립 상한은 그대로 적용됩니다.
+     */
+    private synchronized void returnGlobalBudget(final long budget) {
+        globalCredit += budget;
+    }
+
+    /**
+     * 시간 예산을 넘겼으면 대기열을 다음 주기로 넘깁니다.
+     */
+    private boolean isOverBudget(final QueueLease lease, final long deadline) {
+        if (System.nanoTime() > deadline) {
+            carriedOver.add(lease.queue());
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 이전 주기에서 넘겨받은 대기열을 앞에 두고 나머지 대기열을 이어 붙입니다.
+     * 그사이 비워져 대기열 목록에서 빠진 대기열은 버립니다.
+     */
+    private Collection<String> carriedOverFirst(final List<String> queues) {
+        var ordered = new LinkedHashSet<String>(queues.size());
+        var active = new HashSet<>(queues);
+        for (var queue : carriedOver) {
+            if (active.contains(queue)) {
+                ordered.add(queue);
+            }
+        }
+        carriedOver.clear();
+        ordered.addAll(queues);
+        return ordered;
+    }
+
+    private record FairCandidate(QueueLease lease, QueuePolicy policy, long waiting) {
+    }
+
+    /**
+     * 한 주기의 상태입니다. FAIR 모드의 정산 상태는 이 객체로 동기화합니다.
+     */
+    private static final class Tick {
+        // 새 대기열을 시작하지 않을 시각 (System.nanoTime 기준)
+        private final long deadline;
+        // 이번 주기의 전체 활성 대기열 (다른 노드가 소유한 대기열 포함)
+        private volatile List<String> queues = List.of();
+        // 이번 주기에 처리할 대기열 중 아직 끝나지 않은 대기열
+        private final Set<String> pending = ConcurrentHashMap.newKeySet();
+        // FAIR 모드: 할당 전 DRR 상태, 이번 주기 예산, 아직 정산하지 않은 할당, 한 명이라도 허용했는지 여부
+        private DeficitRoundRobin.Snapshot snapshot;
+        private long budget;
+        private final Map<String, Long> unsettled = new HashMap<>();
+        private boolean admitted;
+
+        private Tick(final long deadline) {
+            this.deadline = deadline;
+        }
+
+        long deadline() {
+            return deadline;
+        }
+
+        Set<String> pending() {
+            return pending;
+        }
+    }
+}
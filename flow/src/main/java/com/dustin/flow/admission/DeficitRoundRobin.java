@@ -0,0 +1,148 @@
+package com.dustin.flow.admission;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 가중치 기반 deficit round robin으로 전체 허용 인원(예산)을 대기열에 나눕니다.
+ * 매 라운드마다 대기열은 가중치에 비례하는 quantum을 deficit에 적립하고, 적립된 만큼(대기 인원 이내)을 할당받습니다.
+ * 예산이 모자라 받지 못한 몫은 deficit으로 남아 다음 주기에 먼저 보상되고, 대기 인원이 적은 대기열이 쓰지 못한 몫은
+ * 같은 주기 안에서 나머지 대기열에 다시 나뉩니다. 따라서 대기열 수와 크기에 관계없이 장기적으로 가중치 비율대로 허용됩니다.
+ * 한 주기 안에서도 여러 스레드에서 settle이 호출될 수 있으므로 모든 메서드는 동기화되어 있습니다.
+ */
+public class DeficitRoundRobin {
+
+    // 대기열별 아직 사용하지 않은 허용 몫
+    private final Map<String, Double> deficits = new HashMap<>();
+
+    // 예산이 부족해 지난 주기를 멈춘 대기열. 다음 주기는 이 대기열부터 시작합니다.
+    private String resumeFrom;
+
+    /**
+     * 대기열별 허용 요청입니다.
+     * @param weight 가중치 (0보다 커야 합니다)
+     * @param backlog 대기 중인 사용자 수
+     */
+    public record Demand(double weight, long backlog) {
+    }
+
+    /**
+     * 예산을 대기열에 나눕니다.
+     * @param demands 대기열 이름별 허용 요청
+     * @param budget 이번 주기에 허용할 전체 인원
+     * @return 대기열 이름별 할당 인원 (할당이 없는 대기열은 포함하지 않습니다)
+     */
+    public synchronized Map<String, Long> allocate(final Map<String, Demand> demands, final long budget) {
+        deficits.keySet().retainAll(demands.keySet()); // 사라진 대기열의 몫은 버립니다.
+        var allocations = new HashMap<String, Long>();
+        var active = new ArrayList<String>();
+        var totalWeight = 0.0;
+        for (var entry : demands.entrySet()) {
+            if (entry.getValue().backlog() > 0 && entry.getValue().weight() > 0) {
+                active.add(entry.getKey());
+                totalWeight += entry.getValue().weight();
+            }
+        }
+        if (budget <= 0 || active.isEmpty()) {
+            return allocations;
+        }
+        rotate(active);
+
+        // 한 라운드에 예산 전체가 나뉘도록 quantum을 정해 라운드 수를 줄입니다.
+        var quantum = Math.max(1.0, budget / totalWeight);
+        var remaining = budget;
+        while (remaining > 0 && !active.isEmpty()) {
+            var iterator = active.iterator();
+            while (iterator.hasNext()) {
+                var queue = iterator.next();
+                if (remaining == 0) {
+                    resumeFrom = queue;
+                    break;
+                }
+                var demand = demands.get(queue);
+                var allocated = allocations.getOrDefault(queue, 0L);
+                var deficit = deficits.getOrDefault(queue, 0.0) + quantum * demand.weight();
+                var grant = Math.min((long) deficit, Math.min(demand.backlog() - allocated, remaining));
+                allocated += grant;
+                remaining -= grant;
+                if (grant > 0) {
+                    allocations.put(queue, allocated);
+                }
+                if (allocated >= demand.backlog()) {
+                    deficits.remove(queue); // 대기열을 모두 비우면 남은 몫은 적립하지 않습니다.
+                    iterator.remove();
+                } else {
+                    deficits.put(queue, deficit - grant);
+                }
+            }
+        }
+        return allocations;
+    }
+
+    /**
+     * 할당받은 인원보다 적게 허용한 대기열은 더 받을 수 없는 상태(동시 활성 사용자 상한 등)이므로 적립된 몫을 버립니다.
+     * @param queue 대기열의 이름
+     * @param allocated 할당받은 인원
+     * @param admitted 실제로 허용한 인원
+     */
+    public synchronized void settle(final String queue, final long allocated, final long admitted) {
+        if (admitted < allocated) {
+            deficits.remove(queue);
+        }
+    }
+
+    /**
+     * 할당받았지만 허용을 시도하지 못한 대기열(주기의 시간 예산 초과 등)에 몫을 돌려주어 다음 주기에 먼저 보상되게 합니다.
+     * allocate는 할당과 동시에 deficit에서 몫을 차감하므로, 돌려주지 않으면 그 몫은 사라집니다.
+     * @param queue 대기열의 이름
+     * @param grant 돌려줄 할당 인원
+     */
+    public synchronized void refund(final String queue, final long grant) {
+        if (grant > 0) {
+            deficits.merge(queue, (double) grant, Double::sum);
+        }
+    }
+
+    /**
+     * 다음 allocate 이전 상태로 되돌릴 수 있도록 현재 상태를 복사합니다.
+     */
+    public synchronized Snapshot snapshot() {
+        return new Snapshot(Map.copyOf(deficits), resumeFrom);
+    }
+
+    /**
+     * snapshot으로 복사한 상태로 되돌립니다. 아무도 허용하지 못한 주기가 몫을 적립하거나 순서를 바꾸지 않게 할 때 사용합니다.
+     */
+    public synchronized void restore(final Snapshot snapshot) {
+        deficits.clear();
+        deficits.putAll(snapshot.deficits());
+        resumeFrom = snapshot.resumeFrom();
+    }
+
+    /**
+     * 대기열별 적립된 몫과 다음 주기를 시작할 대기열입니다.
+     */
+    public record Snapshot(Map<String, Double> deficits, String resumeFrom) {
+    }
+
+    /**
+     * 지난 주기를 멈춘 대기열부터 시작하도록 순서를 정합니다. 이름순으로 정렬해 노드마다 같은 순서를 유지합니다.
+     */
+    private void rotate(final List<String> queues) {
+        queues.sort(null);
+        if (resumeFrom == null) {
+            return;
+        }
+        var start = 0;
+        while (start < queues.size() && queues.get(start).compareTo(resumeFrom) < 0) {
+            start++;
+        }
+        var rotated = new ArrayList<>(queues.subList(start, queues.size()));
+        rotated.addAll(queues.subList(0, start));
+        queues.clear();
+        queues.addAll(rotated);
+        resumeFrom = null;
+    }
+}
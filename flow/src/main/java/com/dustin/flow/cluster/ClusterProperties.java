@@ -0,0 +1,29 @@
+package com.dustin.flow.cluster;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * 여러 flow 노드가 대기열 허용 작업을 나누어 맡기 위한 설정입니다.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "queue.cluster")
+public class ClusterProperties {
+
+    // 노드를 구분하는 ID (지정하지 않으면 시작할 때마다 새로 만듭니다)
+    private String nodeId = UUID.randomUUID().toString();
+
+    // 대기열 소유권(lease) 유효 시간. 소유 노드가 죽으면 이 시간이 지난 뒤 다른 노드가 넘겨받습니다.
+    private Duration leaseTtl = Duration.ofSeconds(30);
+
+    // 노드 heartbeat 유효 시간. 이 시간 동안 heartbeat가 없는 노드는 소유권 분배에서 제외됩니다.
+    private Duration nodeTtl = Duration.ofSeconds(30);
+
+    // 대기열 소유권을 얻거나 반납할 때 동시에 보내는 Redis 호출 수
+    private int leaseConcurrency = 16;
+}
@@ -0,0 +1,165 @@
+package com.dustin.flow.cluster;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * QueueOwnership은 대기열별 소유권(lease)으로 각 대기열의 허용 작업이 클러스터 전체에서 한 노드에서만 실행되도록 합니다.
+ * 살아 있는 노드 목록에 rendezvous hashing을 적용하여 대기열마다 담당 노드를 정하므로, 대기열이 많아도 노드들에 고르게 나뉩니다.
+ * 소유권을 얻을 때마다 증가하는 펜싱 토큰을 허용 스크립트에 함께 넘겨, 소유권을 잃은 노드의 늦은 허용 요청은 거부됩니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class QueueOwnership {
+
+    private final ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+
+    private final ClusterProperties clusterProperties;
+
+    // 살아 있는 노드를 heartbeat 시각(밀리초)과 함께 기록하는 키
+    private final String FLOW_NODES_KEY = "flow:nodes";
+
+    // 대기열 소유 노드를 기록하는 키 형식
+    private final String USER_QUEUE_OWNER_KEY = "users:queue:%s:owner";
+
+    // 대기열 펜싱 토큰 키 형식
+    private final String USER_QUEUE_FENCE_KEY = "users:queue:%s:fence";
+
+    private static final RedisScript<Long> ACQUIRE_LEASE_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/acquire-queue-lease.lua"), Long.class);
+
+    private static final RedisScript<Long> RELEASE_LEASE_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/release-queue-lease.lua"), Long.class);
+
+    // 이 노드가 소유한 대기열과 그 lease 정보
+    private final Map<String, QueueLease> leases = new ConcurrentHashMap<>();
+
+    // 마지막으로 확인한 살아 있는 노드 목록과 다음 heartbeat 시각
+    private volatile List<String> liveNodes = List.of();
+    private volatile long nextHeartbeatAt = 0;
+
+    /**
+     * 주어진 대기열 중 이 노드가 담당하는 대기열의 소유권을 얻어 반환합니다.
+     * 더 이상 담당하지 않게 된 대기열의 소유권은 반납하여 새 담당 노드가 바로 넘겨받을 수 있게 합니다.
+     * lease 호출은 최대 leaseConcurrency개까지 동시에 보내므로, 대기열이 많을 때 한꺼번에 갱신 시점이 와도
+     * 주기가 Redis 왕복 시간 × 대기열 수만큼 늘어나지 않습니다. 결과는 lease를 얻은 순서대로 반환합니다.
+     * @param queues 허용 대상 대기열
+     * @return 이 노드가 소유한 대기열의 lease를 나타내는 Flux<QueueLease>
+     */
+    public Flux<QueueLease> claim(final Flux<String> queues) {
+        return heartbeat()
+                .thenMany(queues)
+                .flatMap(queue -> isAssigned(queue) ? acquire(queue) : release(queue).then(Mono.<QueueLease>empty()),
+                        clusterProperties.getLeaseConcurrency()); // 대기열당 lease 호출은 유효 시간의 절반이 지났을 때만 발생합니다.
+    }
+
+    /**
+     * 대기열을 이 노드가 담당하는지 rendezvous hashing으로 판단합니다.
+     * 살아 있는 노드 중 (노드 ID, 대기열) 해시 값이 가장 큰 노드가 담당합니다.
+     */
+    boolean isAssigned(final String queue) {
+        var nodes = liveNodes;
+        if (nodes.isEmpty()) {
+            return true;
+        }
+        String owner = null;
+        long best = Long.MIN_VALUE;
+        for (var node : nodes) {
+            long weight = mix(node.hashCode() * 31L + queue.hashCode());
+            if (owner == null || weight > best || (weight == best && node.compareTo(owner) > 0)) {
+                owner = node;
+                best = weight;
+            }
+        }
+        return clusterProperties.getNodeId().equals(owner);
+    }
+
+    /**
+     * 이 노드를 살아 있는 노드로 기록하고, 살아 있는 노드 목록을 갱신합니다.
+     * 노드 유효 시간의 1/3마다 한 번만 Redis를 호출합니다.
+     */
+    private Mono<Void> heartbeat() {
+        if (System.currentTimeMillis() < nextHeartbeatAt) {
+            return Mono.empty();
+        }
+        return heartbeatNow();
+    }
+
+    Mono<Void> heartbeatNow() {
+        var now = System.currentTimeMillis();
+        var nodeTtl = clusterProperties.getNodeTtl().toMillis();
+        nextHeartbeatAt = now + nodeTtl / 3;
+        return reactiveRedisTemplate.opsForZSet().add(FLOW_NODES_KEY, clusterProperties.getNodeId(), now)
+                .then(reactiveRedisTemplate.opsForZSet().removeRangeByScore(FLOW_NODES_KEY,
+                        Range.leftUnbounded(Range.Bound.exclusive((double) (now - nodeTtl))))) // 만료된 노드 제거
+                .thenMany(reactiveRedisTemplate.opsForZSet().range(FLOW_NODES_KEY, Range.closed(0L, -1L)))
+                .collectList()
+                .doOnNext(nodes -> {
+                    if (!nodes.equals(liveNodes)) {
+                        log.info("Live flow nodes changed: {}", nodes);
+                    }
+                    liveNodes = List.copyOf(nodes);
+                })
+                .then();
+    }
+
+    private Mono<QueueLease> acquire(final String queue) {
+        var now = System.currentTimeMillis();
+        var lease = leases.get(queue);
+        if (lease != null && now < lease.renewAt()) {
+            return Mono.just(lease); // 아직 유효 시간이 충분히 남아 있으면 Redis를 호출하지 않습니다.
+        }
+        var leaseTtl = clusterProperties.getLeaseTtl().toMillis();
+        return reactiveRedisTemplate.execute(ACQUIRE_LEASE_SCRIPT,
+                        List.of(USER_QUEUE_OWNER_KEY.formatted(queue), USER_QUEUE_FENCE_KEY.formatted(queue)),
+                        List.of(clusterProperties.getNodeId(), String.valueOf(leaseTtl)))
+                .next()
+                .flatMap(fencingToken -> {
+                    if (fencingToken < 0) {
+                        leases.remove(queue); // 다른 노드가 소유 중입니다.
+                        return Mono.empty();
+                    }
+                    var acquired = new QueueLease(queue, fencingToken, now + leaseTtl / 2);
+                    leases.put(queue, acquired);
+                    return Mono.just(acquired);
+                });
+    }
+
+    private Mono<Void> release(final String queue) {
+        if (leases.remove(queue) == null) {
+            return Mono.empty();
+        }
+        return reactiveRedisTemplate.execute(RELEASE_LEASE_SCRIPT,
+                        List.of(USER_QUEUE_OWNER_KEY.formatted(queue)),
+                        List.of(clusterProperties.getNodeId()))
+                .then();
+    }
+
+    // 해시 값이 노드 간에 고르게 퍼지도록 섞습니다. (SplitMix64)
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * 이 노드가 소유한 대기열의 lease입니다.
+     * @param queue 대기열의 이름
+     * @param fencingToken 허용 스크립트에 넘길 펜싱 토큰
+     * @param renewAt lease를 연장할 시각 (밀리초)
+     */
+    public record QueueLease(String queue, long fencingToken, long renewAt) {
+    }
+}
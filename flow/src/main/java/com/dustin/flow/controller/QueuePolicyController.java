@@ -0,0 +1,51 @@
+package com.dustin.flow.controller;
+
+import com.dustin.flow.dto.QueuePolicyRequest;
+import com.dustin.flow.dto.QueuePolicyResponse;
+import com.dustin.flow.policy.QueuePolicy;
+import com.dustin.flow.policy.QueuePolicyStore;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+/**
+ * QueuePolicyController는 대기열별 허용 정책을 조회하고 변경하는 REST API를 제공합니다.
+ * 변경된 정책은 모든 flow 노드에서 다음 허용 주기부터 적용됩니다.
+ */
+@RestController
+@RequestMapping("/api/v1/queue/policy")
+@RequiredArgsConstructor
+public class QueuePolicyController {
+
+    private final QueuePolicyStore queuePolicyStore;
+
+    /**
+     * 대기열의 현재 정책을 조회하는 API 엔드포인트입니다.
+     * @param queue 대기열의 이름 (기본값: "default")
+     * @return 대기열의 정책을 담은 Mono<QueuePolicyResponse>
+     */
+    @GetMapping("")
+    public Mono<QueuePolicyResponse> getPolicy(@RequestParam(name = "queue", defaultValue = "default") String queue) {
+        return queuePolicyStore.get(queue)
+                .map(policy -> toResponse(queue, policy));
+    }
+
+    /**
+     * 대기열의 정책을 변경하는 API 엔드포인트입니다. 요청에 포함된 항목만 변경합니다.
+     * @param queue 대기열의 이름 (기본값: "default")
+     * @param request 변경할 정책 항목
+     * @return 변경된 정책을 담은 Mono<QueuePolicyResponse>
+     */
+    @PutMapping("")
+    public Mono<QueuePolicyResponse> updatePolicy(@RequestParam(name = "queue", defaultValue = "default") String queue,
+                                                  @Valid @RequestBody QueuePolicyRequest request) {
+        return queuePolicyStore.update(queue, request)
+                .map(policy -> toResponse(queue, policy));
+    }
+
+    private QueuePolicyResponse toResponse(String queue, QueuePolicy policy) {
+        return new QueuePolicyResponse(queue, policy.rate(), policy.burst(), policy.maxActiveUsers(),
+                policy.tokenTtl().toSeconds(), policy.weight(), policy.paused());
+    }
+}
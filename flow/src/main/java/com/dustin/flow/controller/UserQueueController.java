@@ -2,17 +2,27 @@ package com.dustin.flow.controller;
 
 import com.dustin.flow.dto.AllowUserResponse;
 import com.dustin.flow.dto.AllowedUserResponse;
+import com.dustin.flow.dto.QueueStatusResponse;
 import com.dustin.flow.dto.RankNumberResponse;
 import com.dustin.flow.dto.RegisterUserResponse;
+import com.dustin.flow.eta.PollAdvisor;
+import com.dustin.flow.eta.ThroughputTracker;
+import com.dustin.flow.event.QueueEventProperties;
+import com.dustin.flow.event.WaiterEvent;
+import com.dustin.flow.event.WaiterEventService;
+import com.dustin.flow.exception.ErrorCode;
+import com.dustin.flow.service.QueueLaneProperties;
 import com.dustin.flow.service.UserQueueService;
+import com.dustin.flow.token.LanePasses;
+import com.dustin.flow.token.QueueTokenCookies;
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.ResponseCookie;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.time.Duration;
-
 /**
  * UserQueueController는 사용자 대기열과 관련된 REST API를 제공하는 컨트롤러 클래스입니다.
  * 이 클래스는 UserQueueService를 통해 대기열에 사용자를 등록하고, 허용된 사용자를 확인하고,
@@ -26,16 +36,41 @@ public class UserQueueController {
     // UserQueueService를 통해 대기열 관련 로직을 처리합니다.
     private final UserQueueService userQueueService;
 
+    // 대기열을 통과한 사용자에게 토큰 쿠키를 발급합니다.
+    private final QueueTokenCookies queueTokenCookies;
+
+    // 우선순위 차선 통과증을 검증합니다.
+    private final LanePasses lanePasses;
+
+    // 순위로 예상 대기 시간을 계산합니다.
+    private final ThroughputTracker throughputTracker;
+
+    // 예상 대기 시간으로 다음 순위 조회 시점을 정합니다.
+    private final PollAdvisor pollAdvisor;
+
+    // 대기 중인 사용자에게 순위 변화와 통과를 알립니다.
+    private final WaiterEventService waiterEventService;
+
+    private final QueueEventProperties queueEventProperties;
+
     /**
      * 사용자를 대기열에 등록하는 API 엔드포인트입니다.
+     * general 이외의 차선은 사용자를 인증한 서비스가 발급한 차선 통과증이 있어야 등록할 수 있습니다.
      * @param queue 대기열의 이름 (기본값: "default")
      * @param userId 등록할 사용자의 ID
+     * @param lane 등록할 우선순위 차선 (기본값: "general")
+     * @param lanePass general 이외의 차선에 필요한 차선 통과증
      * @return 사용자 등록에 대한 응답을 담은 Mono<RegisterUserResponse>
      */
     @PostMapping("")
     public Mono<RegisterUserResponse> registerUser(@RequestParam(name = "queue", defaultValue = "default") String queue,
-                                                   @RequestParam(name = "user_id") Long userId) {
-        return userQueueService.registerWaitQueue(queue, userId)
+                                                   @RequestParam(name = "user_id") Long userId,
+                                                   @RequestParam(name = "lane", defaultValue = QueueLaneProperties.GENERAL) String lane,
+                                                   @RequestParam(name = "lane_pass", required = false) String lanePass) {
+        if (!QueueLaneProperties.GENERAL.equals(lane) && !lanePasses.verify(queue, lane, userId, lanePass)) {
+            return Mono.error(ErrorCode.QUEUE_LANE_NOT_PERMITTED.build(lane)); // 클라이언트가 고른 우선순위 차선은 거부합니다.
+        }
+        return userQueueService.registerWaitQueue(queue, userId, lane)
                 .map(RegisterUserResponse::new); // 등록된 사용자 순위를 포함한 응답을 반환
     }
 
@@ -68,21 +103,60 @@ public class UserQueueController {
     }
 
     /**
-     * 사용자의 현재 대기열 순위를 조회하는 API 엔드포인트입니다.
+     * 사용자의 현재 대기열 순위와 예상 대기 시간을 조회하는 API 엔드포인트입니다.
+     * 예상 대기 시간은 대기열의 허용 처리량(노드별 캐시)으로 계산하므로 Redis 호출을 늘리지 않습니다.
+     * 응답의 nextPollAfterMillis는 예상 대기 시간에 비례하고 지터가 더해진 다음 조회 시점으로, 클라이언트는 그때 다시 조회합니다.
      * @param queue 대기열의 이름 (기본값: "default")
      * @param userId 사용자의 ID
-     * @return 사용자의 대기열 순위를 담은 Mono<RankNumberResponse>
+     * @return 사용자의 대기열 순위, 예상 대기 시간, 다음 조회 시점을 담은 Mono<RankNumberResponse>
      */
     @GetMapping("/rank")
     public Mono<RankNumberResponse> getRankUser(@RequestParam(name = "queue", defaultValue = "default") String queue,
                                                 @RequestParam(name = "user_id") Long userId) {
         return userQueueService.getRank(queue, userId)
-                .map(RankNumberResponse::new); // 사용자의 대기열 순위를 반환
+                .flatMap(rank -> throughputTracker.estimate(queue, rank)
+                        .map(estimate -> new RankNumberResponse(rank, estimate, pollAdvisor.nextPollAfterMillis(estimate)))); // 사용자의 대기열 순위와 예상 대기 시간을 반환
     }
 
     /**
-     * 사용자가 제공된 토큰으로 인증할 수 있도록 하는 API 엔드포인트입니다.
-     * 이 엔드포인트는 사용자의 대기열 등록에 대한 토큰을 생성하고, 이를 쿠키로 반환합니다.
+     * 사용자의 순위가 의미 있게 바뀌거나, 대기열을 벗어나거나, 최대 대기 시간이 지날 때까지 응답을 보류하는 순위 조회 API 엔드포인트입니다.
+     * SSE 연결을 유지할 수 없는 클라이언트가 /rank를 반복 조회하는 대신 사용합니다.
+     * 보류 중인 요청은 노드의 대기열 진행 상황 스트림을 함께 구독하므로 요청별 Redis 조회가 없습니다.
+     * @param queue 대기열의 이름 (기본값: "default")
+     * @param userId 사용자의 ID
+     * @param knownRank 클라이언트가 마지막으로 받은 순위 (없으면 바로 응답)
+     * @return 사용자의 대기열 순위와 예상 대기 시간을 담은 Mono<RankNumberResponse>, 대기열을 벗어났으면 순위는 -1
+     */
+    @GetMapping("/rank/wait")
+    public Mono<RankNumberResponse> awaitRankUser(@RequestParam(name = "queue", defaultValue = "default") String queue,
+                                                  @RequestParam(name = "user_id") Long userId,
+                                                  @RequestParam(name = "known_rank", required = false) Long knownRank) {
+        return waiterEventService.awaitRank(queue, userId, knownRank, queueEventProperties.getLongPollTimeout())
+                .flatMap(rank -> throughputTracker.estimate(queue, rank)
+                        .map(estimate -> new RankNumberResponse(rank, estimate)));
+    }
+
+    /**
+     * 사용자의 순위 변화와 대기열 통과를 Server-Sent Events로 보내는 API 엔드포인트입니다.
+     * 순위가 바뀔 때마다 "rank" 이벤트(RankNumberResponse)를 보내고, 통과하면 토큰을 담은 "admitted" 이벤트를 보낸 뒤 스트림을 닫습니다.
+     * 응답 헤더는 이미 보낸 뒤이므로 토큰 쿠키는 클라이언트가 저장합니다.
+     * @param queue 대기열의 이름 (기본값: "default")
+     * @param userId 사용자의 ID
+     * @return 사용자 이벤트 스트림
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> events(@RequestParam(name = "queue", defaultValue = "default") String queue,
+                                                @RequestParam(name = "user_id") Long userId) {
+        var keepAlive = Flux.interval(queueEventProperties.getHeartbeatInterval())
+                .map(tick -> ServerSentEvent.builder().comment("keep-alive").build());
+        return waiterEventService.events(queue, userId)
+                .map(this::toServerSentEvent)
+                .publish(events -> Flux.merge(events, keepAlive.takeUntilOther(events.then())));
+    }
+
+    /**
+     * 대기열을 통과한 사용자에게 서명된 토큰을 발급하는 API 엔드포인트입니다.
+     * 사용자가 진행 목록에 있을 때만 토큰을 생성하고, 이를 쿠키로 반환합니다.
      * @param queue 대기열의 이름 (기본값: "default")
      * @param userId 사용자의 ID
      * @param exchange ServerWebExchange를 통해 HTTP 응답을 조작
@@ -92,16 +166,48 @@ public class UserQueueController {
     Mono<?> touch(@RequestParam(name = "queue", defaultValue = "default") String queue,
                   @RequestParam(name = "user_id") Long userId,
                   ServerWebExchange exchange) {
-        return Mono.defer(() -> userQueueService.generateToken(queue, userId))
-                .map(token -> {
-                    exchange.getResponse().addCookie(
-                            ResponseCookie
-                                    .from("user-queue-%s-token".formatted(queue), token)
-                                    .maxAge(Duration.ofSeconds(300)) // 토큰 쿠키의 유효 기간을 300초로 설정
-                                    .path("/")
-                                    .build()
-                    );
-                    return token; // 생성된 토큰을 반환
-                });
+        return userQueueService.isAllowed(queue, userId)
+                .filter(allowed -> allowed) // 진행 목록에 있는 사용자만 토큰을 받을 수 있습니다.
+                .switchIfEmpty(Mono.error(ErrorCode.QUEUE_NOT_ALLOWED_USER::buildStackless))
+                .flatMap(allowed -> queueTokenCookies.issue(queue, userId, exchange))
+                .map(WaiterEvent.Admitted::token);
+    }
+
+    /**
+     * 사용자의 대기 상태를 한 번에 조회하는 API 엔드포인트입니다.
+     * 대기 중이면 순위, 예상 대기 시간, 다음 조회 시점을 반환하고, 대기열을 통과했으면 토큰을 발급해 응답과 쿠키로 함께 반환합니다.
+     * /rank, /touch, 대기실 페이지 재요청으로 나뉘어 있던 통과 확인을 한 번의 요청(Redis 호출 최대 두 번)으로 처리하므로,
+     * 클라이언트는 통과하면 바로 목적지로 이동할 수 있습니다.
+     * @param queue 대기열의 이름 (기본값: "default")
+     * @param userId 사용자의 ID
+     * @param exchange ServerWebExchange를 통해 HTTP 응답을 조작
+     * @return 사용자의 대기 상태를 담은 Mono<QueueStatusResponse>
+     */
+    @GetMapping("/status")
+    public Mono<QueueStatusResponse> status(@RequestParam(name = "queue", defaultValue = "default") String queue,
+                                            @RequestParam(name = "user_id") Long userId,
+                                            ServerWebExchange exchange) {
+        return userQueueService.getRank(queue, userId)
+                .flatMap(rank -> rank > 0
+                        ? throughputTracker.estimate(queue, rank)
+                                .map(estimate -> QueueStatusResponse.waiting(rank, estimate, pollAdvisor.nextPollAfterMillis(estimate)))
+                        : userQueueService.isAllowed(queue, userId)
+                                .flatMap(allowed -> allowed
+                                        ? queueTokenCookies.issue(queue, userId, exchange)
+                                                .map(admitted -> QueueStatusResponse.admitted(admitted.token(), admitted.ttlSeconds()))
+                                        : Mono.just(QueueStatusResponse.notWaiting())));
+    }
+
+    private ServerSentEvent<Object> toServerSentEvent(WaiterEvent event) {
+        if (event instanceof WaiterEvent.Rank rank) {
+            return ServerSentEvent.builder()
+                    .event("rank")
+                    .data((Object) new RankNumberResponse(rank.rank(), rank.eta()))
+                    .build();
+        }
+        return ServerSentEvent.builder()
+                .event("admitted")
+                .data((Object) event)
+                .build();
     }
 }
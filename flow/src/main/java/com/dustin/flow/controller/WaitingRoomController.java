@@ -1,6 +1,10 @@
 package com.dustin.flow.controller;
 
+import com.dustin.flow.eta.PollAdvisor;
+import com.dustin.flow.eta.ThroughputTracker;
 import com.dustin.flow.service.UserQueueService;
+import com.dustin.flow.service.WaitingRoomEntry;
+import com.dustin.flow.token.QueueTokenCookies;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -21,6 +25,15 @@ public class WaitingRoomController {
     // 대기열 관련 로직을 처리하기 위해 UserQueueService를 사용합니다.
     private final UserQueueService userQueueService;
 
+    // 순위로 예상 대기 시간을 계산합니다.
+    private final ThroughputTracker throughputTracker;
+
+    // 예상 대기 시간으로 다음 순위 조회 시점을 정합니다.
+    private final PollAdvisor pollAdvisor;
+
+    // 토큰 쿠키를 읽고, 대기열을 통과한 사용자에게 발급합니다.
+    private final QueueTokenCookies queueTokenCookies;
+
     /**
      * 사용자가 웨이팅 룸 페이지에 접속할 때 호출되는 엔드포인트입니다.
      * @param queue 대기열의 이름 (기본값: "default")
@@ -34,24 +47,36 @@ public class WaitingRoomController {
                                     @RequestParam(name = "user_id") Long userId,
                                     @RequestParam(name = "redirect_url") String redirectUrl,
                                     ServerWebExchange exchange) {
-        var key = "user-queue-%s-token".formatted(queue); // 쿠키에 저장된 토큰의 키를 생성합니다.
-        var cookieValue = exchange.getRequest().getCookies().getFirst(key); // 요청에서 토큰 쿠키를 가져옵니다.
-        var token = (cookieValue == null) ? "" : cookieValue.getValue(); // 쿠키가 없으면 빈 문자열을, 있으면 토큰 값을 가져옵니다.
+        var token = queueTokenCookies.read(queue, exchange); // 요청에서 토큰 쿠키를 가져옵니다. 쿠키가 없으면 빈 문자열입니다.
 
-        // 사용자가 대기열에서 허용되었는지 토큰을 통해 확인합니다.
+        // 사용자가 대기열에서 허용되었는지 토큰을 통해 확인합니다. 토큰 검증은 서명만 확인하므로 Redis를 호출하지 않습니다.
         return userQueueService.isAllowedByToken(queue, userId, token)
                 .filter(allowed -> allowed) // 허용된 경우
-                .flatMap(allowed -> Mono.just(Rendering.redirectTo(redirectUrl).build())) // 리다이렉트 URL로 이동
-                .switchIfEmpty(
-                        // 허용되지 않은 경우, 대기열에 등록하거나 이미 등록된 경우 순위를 가져옵니다.
-                        userQueueService.registerWaitQueue(queue, userId)
-                                .onErrorResume(ex -> userQueueService.getRank(queue, userId)) // 이미 등록된 경우 에러를 무시하고 순위를 가져옵니다.
-                                .map(rank -> Rendering.view("waiting-room.html") // 대기실 페이지를 렌더링
-                                        .modelAttribute("number", rank) // 현재 대기 순위를 모델에 추가
-                                        .modelAttribute("userId", userId) // 사용자 ID를 모델에 추가
-                                        .modelAttribute("queue", queue) // 대기열 이름을 모델에 추가
-                                        .build()
+                .map(allowed -> Rendering.redirectTo(redirectUrl).build()) // 리다이렉트 URL로 이동
+                .switchIfEmpty(Mono.defer(() ->
+                        // 토큰이 없으면 허용 여부 확인, 대기 순위 조회, 등록을 한 번의 Redis 호출로 판단합니다.
+                        userQueueService.enterWaitingRoom(queue, userId)
+                                .flatMap(entry -> entry.status() == WaitingRoomEntry.Status.ADMITTED
+                                        ? admit(queue, userId, redirectUrl, exchange) // 허용되었지만 토큰이 없으면 토큰을 발급하고 이동
+                                        : throughputTracker.estimate(queue, entry.rank())
+                                                .map(estimate -> Rendering.view("waiting-room.html") // 대기실 페이지를 렌더링
+                                                        .modelAttribute("number", entry.rank()) // 현재 대기 순위를 모델에 추가
+                                                        .modelAttribute("eta", estimate) // 예상 대기 시간을 모델에 추가
+                                                        .modelAttribute("nextPollAfter", pollAdvisor.nextPollAfterMillis(estimate)) // 다음 순위 조회 시점을 모델에 추가
+                                                        .modelAttribute("userId", userId) // 사용자 ID를 모델에 추가
+                                                        .modelAttribute("queue", queue) // 대기열 이름을 모델에 추가
+                                                        .modelAttribute("redirectUrl", redirectUrl) // 통과하면 바로 이동할 URL을 모델에 추가
+                                                        .build()
+                                                )
                                 )
-                );
+                ));
+    }
+
+    /**
+     * 진행 목록에 있지만 토큰이 없는 사용자에게 토큰 쿠키를 발급하고 목적지로 이동시킵니다.
+     */
+    private Mono<Rendering> admit(String queue, Long userId, String redirectUrl, ServerWebExchange exchange) {
+        return queueTokenCookies.issue(queue, userId, exchange)
+                .map(admitted -> Rendering.redirectTo(redirectUrl).build());
     }
 }
@@ -0,0 +1,12 @@
+package com.dustin.flow.dto;
+
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+
+public record QueuePolicyRequest(@Positive Double rate,
+                                 @Positive Long burst,
+                                 @PositiveOrZero Long maxActiveUsers,
+                                 @Positive Long tokenTtlSeconds,
+                                 @Positive Double weight,
+                                 Boolean paused) {
+}
@@ -0,0 +1,4 @@
+package com.dustin.flow.dto;
+
+public record QueuePolicyResponse(String queue, Double rate, Long burst, Long maxActiveUsers, Long tokenTtlSeconds, Double weight, Boolean paused) {
+}
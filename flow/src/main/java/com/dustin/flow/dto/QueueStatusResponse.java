@@ -0,0 +1,25 @@
+package com.dustin.flow.dto;
+
+import com.dustin.flow.eta.WaitEstimate;
+
+/**
+ * 대기 사용자의 상태입니다.
+ * 대기 중이면 순위, 예상 대기 시간(초), 다음 조회 시점(밀리초)을, 대기열을 통과했으면 토큰과 토큰 유효 기간(초)을 담습니다.
+ * 대기열에 없고 통과하지도 않았으면 순위는 -1이고 admitted는 false입니다.
+ */
+public record QueueStatusResponse(Long rank, Long etaSeconds, Long etaLowSeconds, Long etaHighSeconds, Long nextPollAfterMillis,
+                                  boolean admitted, String token, Long tokenTtlSeconds) {
+
+    public static QueueStatusResponse waiting(final Long rank, final WaitEstimate estimate, final Long nextPollAfterMillis) {
+        return new QueueStatusResponse(rank, estimate.seconds(), estimate.lowSeconds(), estimate.highSeconds(), nextPollAfterMillis,
+                false, null, null);
+    }
+
+    public static QueueStatusResponse admitted(final String token, final Long tokenTtlSeconds) {
+        return new QueueStatusResponse(-1L, null, null, null, null, true, token, tokenTtlSeconds);
+    }
+
+    public static QueueStatusResponse notWaiting() {
+        return new QueueStatusResponse(-1L, null, null, null, null, false, null, null);
+    }
+}
@@ -1,4 +1,22 @@
 package com.dustin.flow.dto;
 
-public record RankNumberResponse(Long rank) {
+import com.dustin.flow.eta.WaitEstimate;
+
+/**
+ * 대기 순위와 예상 대기 시간(초)입니다. 예상 대기 시간은 허용 처리량을 알 수 없으면 null입니다.
+ * nextPollAfterMillis는 다음 순위 조회까지 기다릴 시간(밀리초)이며, 주기적으로 조회하는 응답에만 있습니다.
+ */
+public record RankNumberResponse(Long rank, Long etaSeconds, Long etaLowSeconds, Long etaHighSeconds, Long nextPollAfterMillis) {
+
+    public RankNumberResponse(Long rank) {
+        this(rank, null, null, null, null);
+    }
+
+    public RankNumberResponse(Long rank, WaitEstimate estimate) {
+        this(rank, estimate, null);
+    }
+
+    public RankNumberResponse(Long rank, WaitEstimate estimate, Long nextPollAfterMillis) {
+        this(rank, estimate.seconds(), estimate.lowSeconds(), estimate.highSeconds(), nextPollAfterMillis);
+    }
 }
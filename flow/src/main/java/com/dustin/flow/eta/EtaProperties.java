@@ -0,0 +1,25 @@
+package com.dustin.flow.eta;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 예상 대기 시간(ETA) 계산 설정입니다.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "queue.eta")
+public class EtaProperties {
+
+    // 허용 처리량 이동 평균의 시간 상수. 길수록 안정적이지만 처리량 변화를 늦게 따라갑니다.
+    private Duration window = Duration.ofSeconds(30);
+
+    // 노드별로 허용 처리량을 캐시하는 시간. 순위 조회마다 Redis를 읽지 않도록 합니다.
+    private Duration cacheTtl = Duration.ofSeconds(1);
+
+    // 예상 대기 시간 범위의 폭 (처리량 이동 평균의 표준오차 배수)
+    private double bandWidth = 2;
+}
@@ -0,0 +1,39 @@
+package com.dustin.flow.eta;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * PollAdvisor는 대기 중인 사용자가 다음에 순위를 조회할 시점을 정합니다.
+ * 간격은 예상 대기 시간의 하한(처리량이 평균보다 높을 때의 예상 대기 시간)에 비례하며 상한을 두지 않으므로,
+ * 앞쪽 사용자는 자주, 뒤쪽 사용자는 드물게 조회하고 처리량이 늘어도 예상 대기 시간의 fraction 이상 늦게 알아채지 않습니다.
+ * 순위 r인 사용자의 조회 빈도는 최대 처리량 / (r × fraction)이므로, N명이 기다릴 때 전체 조회량은
+ * 처리량 × ln(N) / fraction 정도로 허용 처리량에 비례하고 대기 인원에는 로그로만 늘어납니다
+ * (min-interval에 걸리는 앞쪽 사용자는 처리량 × min-interval / fraction명 이내입니다).
+ * 허용 처리량을 알 수 없는 동안(허용이 멈춘 동안)은 모든 사용자가 unknown-interval로 조회하므로 이 보장은 적용되지 않습니다.
+ */
+@Component
+@RequiredArgsConstructor
+public class PollAdvisor {
+
+    private final PollProperties pollProperties;
+
+    /**
+     * 다음 조회까지 기다릴 시간(밀리초)을 반환합니다. 무작위 지터가 더해지므로 호출마다 값이 다릅니다.
+     * @param estimate 사용자의 예상 대기 시간
+     * @return 다음 조회까지의 시간(밀리초)
+     */
+    public long nextPollAfterMillis(final WaitEstimate estimate) {
+        var interval = estimate.lowSeconds() == null
+                ? pollProperties.getUnknownInterval().toMillis()
+                : Math.max(pollProperties.getMinInterval().toMillis(),
+                        (long) (estimate.lowSeconds() * 1000 * pollProperties.getFraction()));
+        var jitter = pollProperties.getJitter();
+        if (jitter <= 0) {
+            return interval;
+        }
+        return Math.round(interval * (1 + ThreadLocalRandom.current().nextDouble(-jitter, jitter)));
+    }
+}
@@ -0,0 +1,29 @@
+package com.dustin.flow.eta;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 서버가 순위 응답에 담아 보내는 다음 조회 시점 안내 설정입니다.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "queue.poll")
+public class PollProperties {
+
+    // 예상 대기 시간(하한) 중 다음 조회까지 기다릴 비율. 0.1이면 예상 대기 시간 동안 약 10번 조회합니다.
+    // 간격에 고정 상한을 두면 뒤쪽 사용자가 모두 같은 간격으로 조회해 전체 조회량이 대기 인원에 비례하므로 상한은 두지 않습니다.
+    private double fraction = 0.1;
+
+    // 다음 조회까지의 최소 간격
+    private Duration minInterval = Duration.ofSeconds(2);
+
+    // 허용 처리량을 알 수 없을 때의 조회 간격
+    private Duration unknownInterval = Duration.ofSeconds(3);
+
+    // 간격을 무작위로 늘리거나 줄이는 비율. 같은 시각에 접속한 사용자들이 같은 시각에 조회하지 않도록 합니다.
+    private double jitter = 0.2;
+}
@@ -0,0 +1,11 @@
+package com.dustin.flow.eta;
+
+/**
+ * 대기열의 허용 처리량입니다.
+ * @param rate 초당 허용 인원의 이동 평균
+ * @param stddev 이동 평균의 표준오차 (순간 처리량의 표준편차가 아닙니다)
+ */
+public record Throughput(double rate, double stddev) {
+
+    public static final Throughput UNKNOWN = new Throughput(0, 0);
+}
@@ -0,0 +1,92 @@
+package com.dustin.flow.eta;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ThroughputTracker는 대기열별 허용 처리량을 읽어 예상 대기 시간을 계산합니다.
+ * 처리량은 허용 스크립트(allow-user.lua)가 허용할 때마다 Redis에 지수 가중 이동 평균으로 기록하므로,
+ * 어느 노드에서 허용하든 모든 노드가 같은 값을 읽습니다.
+ * 순위 조회가 몰려도 Redis 부하가 늘지 않도록 노드마다 queue.eta.cache-ttl 동안 캐시합니다.
+ */
+@Component
+@RequiredArgsConstructor
+public class ThroughputTracker {
+
+    private final ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+
+    private final EtaProperties etaProperties;
+
+    // 대기열별 허용 처리량 통계를 저장하는 해시 키 형식 (rate, var, weight, ts, w2)
+    private final String USER_QUEUE_THROUGHPUT_KEY = "users:queue:%s:throughput";
+
+    private final Map<String, CachedThroughput> cache = new ConcurrentHashMap<>();
+
+    /**
+     * 허용 스크립트에 전달할 처리량 키를 반환합니다.
+     */
+    public String throughputKey(final String queue) {
+        return USER_QUEUE_THROUGHPUT_KEY.formatted(queue);
+    }
+
+    /**
+     * 대기열의 허용 처리량을 반환합니다.
+     * 마지막 기록 이후 허용이 없었다면(예: 소유 노드 장애, 일시 정지) 그 시간만큼 처리량을 0 쪽으로 감쇠시켜 반환합니다.
+     * @param queue 대기열의 이름
+     * @return 허용 처리량을 나타내는 Mono<Throughput>
+     */
+    public Mono<Throughput> get(final String queue) {
+        var now = System.currentTimeMillis();
+        var cached = cache.get(queue);
+        if (cached != null && cached.expiresAt() > now) {
+            return Mono.just(cached.throughput());
+        }
+        return reactiveRedisTemplate.<String, String>opsForHash()
+                .multiGet(throughputKey(queue), List.of("rate", "var", "weight", "ts", "w2"))
+                .map(values -> toThroughput(values, now))
+                .defaultIfEmpty(Throughput.UNKNOWN)
+                .doOnNext(throughput -> cache.put(queue, new CachedThroughput(throughput, now + etaProperties.getCacheTtl().toMillis())));
+    }
+
+    /**
+     * 순위와 대기열의 허용 처리량으로 예상 대기 시간을 계산합니다.
+     * @param queue 대기열의 이름
+     * @param rank 1부터 시작하는 순위 (대기열에 없으면 음수)
+     * @return 예상 대기 시간을 나타내는 Mono<WaitEstimate>
+     */
+    public Mono<WaitEstimate> estimate(final String queue, final long rank) {
+        if (rank < 1) {
+            return Mono.just(WaitEstimate.UNKNOWN);
+        }
+        return get(queue).map(throughput -> WaitEstimate.of(rank, throughput, etaProperties.getBandWidth()));
+    }
+
+    private Throughput toThroughput(final List<String> values, final long now) {
+        if (values.stream().anyMatch(value -> value == null)) {
+            return Throughput.UNKNOWN;
+        }
+        var weight = Double.parseDouble(values.get(2));
+        if (weight <= 0) {
+            return Throughput.UNKNOWN;
+        }
+        // 이동 평균의 초기값(0)으로 인한 치우침을 누적 가중치로 보정합니다.
+        var rate = Double.parseDouble(values.get(0)) / weight;
+        var variance = Double.parseDouble(values.get(1)) / weight;
+        // 순간 처리량의 분산이 아니라 이동 평균의 분산(표본 가중치 제곱합 / 누적 가중치^2 배)으로 범위를 정합니다.
+        // 주기마다 허용 인원이 들쭉날쭉해도 window 동안의 평균은 훨씬 안정적이므로, 범위가 지나치게 넓어지지 않습니다.
+        var sumOfSquaredWeights = Double.parseDouble(values.get(4));
+        var standardError = Math.sqrt(variance * sumOfSquaredWeights) / weight;
+        var idle = Math.max(0, now - (long) Double.parseDouble(values.get(3)));
+        var decay = Math.exp(-idle / (double) etaProperties.getWindow().toMillis());
+        return new Throughput(rate * decay, standardError);
+    }
+
+    private record CachedThroughput(Throughput throughput, long expiresAt) {
+    }
+}
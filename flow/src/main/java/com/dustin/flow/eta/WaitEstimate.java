@@ -0,0 +1,36 @@
+package com.dustin.flow.eta;
+
+/**
+ * 순위와 허용 처리량으로 계산한 예상 대기 시간(초)입니다. 처리량을 알 수 없으면 값은 null입니다.
+ * @param seconds 평균 처리량 기준 예상 대기 시간
+ * @param lowSeconds 처리량이 평균보다 높을 때의 예상 대기 시간 (범위의 하한)
+ * @param highSeconds 처리량이 평균보다 낮을 때의 예상 대기 시간 (범위의 상한, 처리량이 0에 가까울 수 있으면 null)
+ */
+public record WaitEstimate(Long seconds, Long lowSeconds, Long highSeconds) {
+
+    public static final WaitEstimate UNKNOWN = new WaitEstimate(null, null, null);
+
+    // 이보다 낮은 처리량은 멈춘 것으로 간주합니다.
+    private static final double MIN_RATE = 1e-3;
+
+    /**
+     * @param rank 1부터 시작하는 순위
+     * @param throughput 대기열의 허용 처리량
+     * @param bandWidth 범위의 폭 (처리량 표준오차의 배수)
+     */
+    public static WaitEstimate of(final long rank, final Throughput throughput, final double bandWidth) {
+        if (rank < 1 || throughput.rate() < MIN_RATE) {
+            return UNKNOWN;
+        }
+        var margin = throughput.stddev() * bandWidth;
+        var slowest = throughput.rate() - margin;
+        return new WaitEstimate(
+                seconds(rank, throughput.rate()),
+                seconds(rank, throughput.rate() + margin),
+                slowest < MIN_RATE ? null : seconds(rank, slowest));
+    }
+
+    private static long seconds(final long rank, final double rate) {
+        return (long) Math.ceil(rank / rate);
+    }
+}
@@ -0,0 +1,19 @@
+package com.dustin.flow.event;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+
+/**
+ * 대기열 진행 상황 채널을 구독할 리스너 컨테이너를 등록합니다.
+ * 노드의 모든 대기열 구독이 하나의 Pub/Sub 연결을 함께 사용합니다.
+ */
+@Configuration
+public class QueueEventConfig {
+
+    @Bean
+    public ReactiveRedisMessageListenerContainer queueEventListenerContainer(ReactiveRedisConnectionFactory connectionFactory) {
+        return new ReactiveRedisMessageListenerContainer(connectionFactory);
+    }
+}
@@ -0,0 +1,66 @@
+package com.dustin.flow.event;
+
+import com.dustin.flow.service.UserQueueService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * QueueEventHub는 노드에 연결된 대기 사용자들이 대기열 진행 상황을 함께 구독하도록 합니다.
+ * 노드는 대기열마다 진행 상황 채널 하나만 구독하고, 허용 스크립트가 발행한 진행 상황을 같은 대기열의 모든 구독자에게 메모리에서 나누어 줍니다.
+ * 따라서 Redis 부하는 연결된 사용자 수가 아니라 (노드 수 × 대기열 수)에 비례합니다.
+ * 마지막 구독자가 떠나면 해당 대기열의 구독도 해지합니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class QueueEventHub {
+
+    private final UserQueueService userQueueService;
+
+    private final ReactiveRedisMessageListenerContainer queueEventListenerContainer;
+
+    private final QueueEventProperties queueEventProperties;
+
+    // 대기열별 공유 스트림
+    private final Map<String, Flux<QueueProgress>> streams = new ConcurrentHashMap<>();
+
+    /**
+     * 대기열 진행 상황의 공유 스트림을 반환합니다. 구독하면 가장 최근 상황을 바로 받고, 이후 바뀔 때마다 받습니다.
+     * @param queue 대기열의 이름
+     * @return 대기열 진행 상황을 나타내는 Flux<QueueProgress>
+     */
+    public Flux<QueueProgress> progress(final String queue) {
+        return streams.computeIfAbsent(queue, this::subscribe);
+    }
+
+    private Flux<QueueProgress> subscribe(final String queue) {
+        // 구독이 완료된 뒤에 현재 상황을 읽어야, 그사이 발행된 진행 상황을 놓치지 않습니다.
+        var resync = Flux.interval(Duration.ZERO, queueEventProperties.getResyncInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> userQueueService.getProgress(queue));
+        var stream = new AtomicReference<Flux<QueueProgress>>();
+        var flux = queueEventListenerContainer.receiveLater(ChannelTopic.of(userQueueService.progressChannel(queue)))
+                .flatMapMany(messages -> Flux.merge(messages.map(message -> QueueProgress.parse(message.getMessage())), resync))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.warn("Progress subscription for queue {} failed, retrying", queue, signal.failure())))
+                // 발행된 메시지와 다시 읽은 결과가 순서를 바꿔 도착할 수 있으므로, 누적 허용 인원이 줄어든 상황은 버립니다.
+                .scan((previous, next) -> next.totalAdmitted() >= previous.totalAdmitted() ? next : previous)
+                .distinctUntilChanged()
+                // 그사이 새 스트림으로 바뀌었으면 새 스트림을 지우지 않도록, 이 스트림일 때만 지웁니다.
+                .doFinally(signal -> streams.remove(queue, stream.get()))
+                .replay(1)
+                .refCount();
+        stream.set(flux);
+        return flux;
+    }
+}
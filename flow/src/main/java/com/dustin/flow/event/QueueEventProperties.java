@@ -0,0 +1,28 @@
+package com.dustin.flow.event;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 대기 중인 사용자에게 순위 변화를 보내는 이벤트 스트림 설정입니다.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "queue.events")
+public class QueueEventProperties {
+
+    // 발행된 진행 상황과 별도로 노드가 대기열 진행 상황을 다시 읽는 주기 (놓친 메시지와 새 등록으로 바뀐 대기 인원을 반영합니다)
+    private Duration resyncInterval = Duration.ofSeconds(30);
+
+    // 연결이 끊기지 않도록 보내는 keep-alive 주기
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+    // 순위 long-poll 요청의 최대 대기 시간
+    private Duration longPollTimeout = Duration.ofSeconds(30);
+
+    // 순위 long-poll 요청이 응답할 최소 순위 변화 (알고 있는 순위에 대한 비율, 최소 1)
+    private double longPollMinChangeRatio = 0.01;
+}
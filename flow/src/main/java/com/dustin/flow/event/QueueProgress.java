@@ -0,0 +1,33 @@
+package com.dustin.flow.event;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 대기열의 진행 상황입니다.
+ * @param admitted 차선별 누적 허용 인원 (차선 설정 순서)
+ * @param waiting 차선별 대기 인원 (차선 설정 순서)
+ */
+public record QueueProgress(List<Long> admitted, List<Long> waiting) {
+
+    /**
+     * 허용 스크립트가 발행한 "차선1 누적 허용 인원,차선1 대기 인원,차선2 누적 허용 인원,..." 형식의 메시지를 읽습니다.
+     */
+    public static QueueProgress parse(final String message) {
+        var values = message.split(",");
+        var admitted = new ArrayList<Long>();
+        var waiting = new ArrayList<Long>();
+        for (int i = 0; i + 1 < values.length; i += 2) {
+            admitted.add(Long.parseLong(values[i]));
+            waiting.add(Long.parseLong(values[i + 1]));
+        }
+        return new QueueProgress(List.copyOf(admitted), List.copyOf(waiting));
+    }
+
+    /**
+     * 모든 차선의 누적 허용 인원입니다. 누적 허용 인원은 줄지 않으므로 두 진행 상황 중 어느 것이 최신인지 비교하는 데 사용합니다.
+     */
+    public long totalAdmitted() {
+        return admitted.stream().mapToLong(Long::longValue).sum();
+    }
+}
@@ -0,0 +1,21 @@
+package com.dustin.flow.event;
+
+import com.dustin.flow.eta.WaitEstimate;
+
+/**
+ * 대기 중인 사용자에게 보내는 이벤트입니다.
+ */
+public sealed interface WaiterEvent {
+
+    /**
+     * 순위가 바뀌었습니다. 대기열에 없으면(허용되지 않은 채 빠진 경우) 순위는 -1입니다.
+     */
+    record Rank(long rank, WaitEstimate eta) implements WaiterEvent {
+    }
+
+    /**
+     * 대기열을 통과했습니다. 이후 요청에는 토큰을 쿠키로 제시합니다.
+     */
+    record Admitted(String token, long ttlSeconds) implements WaiterEvent {
+    }
+}
@@ -0,0 +1,137 @@
+package com.dustin.flow.event;
+
+import com.dustin.flow.eta.ThroughputTracker;
+import com.dustin.flow.eta.WaitEstimate;
+import com.dustin.flow.policy.QueuePolicyStore;
+import com.dustin.flow.service.QueueLaneProperties;
+import com.dustin.flow.service.UserQueueService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * WaiterEventService는 대기 중인 사용자 한 명에게 보낼 순위 변화와 통과 이벤트를 만듭니다.
+ * 연결 시 한 번 사용자의 위치를 읽은 뒤에는 대기열 공유 스트림(QueueEventHub)의 누적 허용 인원으로 순위를 메모리에서 다시 계산하므로,
+ * 사용자별 Redis 호출은 연결과 통과 시점에만 발생합니다.
+ */
+@Service
+@RequiredArgsConstructor
+public class WaiterEventService {
+
+    private final UserQueueService userQueueService;
+
+    private final QueueEventHub queueEventHub;
+
+    private final QueueLaneProperties queueLaneProperties;
+
+    private final ThroughputTracker throughputTracker;
+
+    private final QueuePolicyStore queuePolicyStore;
+
+    private final QueueEventProperties queueEventProperties;
+
+    // 대기열에 없는 사용자의 순위 (UserQueueService.getRank와 같습니다)
+    private static final long NOT_WAITING = -1L;
+
+    /**
+     * 사용자의 순위가 바뀔 때마다 Rank 이벤트를, 대기열을 통과하면 토큰을 담은 Admitted 이벤트를 보내고 끝납니다.
+     * 연결 시 이미 대기열에 없으면 통과 여부에 따라 Admitted 또는 순위 -1인 Rank 이벤트 하나만 보냅니다.
+     * @param queue 대기열의 이름
+     * @param userId 사용자의 ID
+     * @return 사용자 이벤트를 나타내는 Flux<WaiterEvent>
+     */
+    public Flux<WaiterEvent> events(final String queue, final Long userId) {
+        return ranks(queue, userId)
+                .concatMap(rank -> rank > 0 ? rankEvent(queue, rank) : admittedEvent(queue, userId));
+    }
+
+    /**
+     * 사용자의 순위가 바뀔 때까지, 사용자가 대기열을 벗어날 때까지, 또는 timeout이 지날 때까지 기다린 뒤 순위를 반환합니다.
+     * knownRank와 비교해 (knownRank × minChangeRatio) 이상, 최소 1 이상 바뀐 순위만 변화로 봅니다.
+     * timeout이 지나면 그때까지 계산한 가장 최근 순위를 반환합니다.
+     * @param queue 대기열의 이름
+     * @param userId 사용자의 ID
+     * @param knownRank 클라이언트가 알고 있는 순위 (없으면 현재 순위를 바로 반환)
+     * @param timeout 최대 대기 시간
+     * @return 사용자의 순위를 나타내는 Mono<Long>, 대기열에 없으면 -1
+     */
+    public Mono<Long> awaitRank(final String queue, final Long userId, final Long knownRank, final Duration timeout) {
+        return ranks(queue, userId)
+                .take(timeout)
+                .takeUntil(rank -> rank < 0 || isMeaningfulChange(knownRank, rank))
+                .reduce((previous, next) -> next)
+                .switchIfEmpty(Mono.defer(() -> userQueueService.getRank(queue, userId)));
+    }
+
+    /**
+     * 사용자의 순위가 바뀔 때마다 순위를 보내고, 대기열을 벗어나면(허용되었거나 대기열에 없으면) -1을 보낸 뒤 끝납니다.
+     * 순위는 연결 시 읽은 위치와 공유 진행 상황만으로 메모리에서 계산하므로, 연결된 사용자 수와 관계없이 Redis 호출이 늘지 않습니다.
+     * 앞선 사용자가 이탈하면 실제 위치가 계산보다 앞서므로, 위치는 진행 상황의 차선 대기 인원을 넘지 않게 보정합니다.
+     * 반대로 다른 노드에서 더 작은 번호표로 나중에 등록한 사용자가 앞에 끼어들면 계산한 위치가 실제보다 앞설 수 있으므로,
+     * 계산한 순위가 0 이하가 되었을 때만 실제 위치를 다시 읽어 통과 여부를 확인합니다. 이 호출은 사용자마다 통과 직전 한 번꼴입니다.
+     */
+    Flux<Long> ranks(final String queue, final Long userId) {
+        return userQueueService.getWaiterPosition(queue, userId)
+                .flatMapMany(initial -> {
+                    var anchor = new AtomicReference<>(initial);
+                    return queueEventHub.progress(queue)
+                            .concatMap(progress -> rank(queue, userId, anchor, progress))
+                            .takeUntil(rank -> rank <= 0)
+                            .map(rank -> rank > 0 ? rank : NOT_WAITING)
+                            .distinctUntilChanged();
+                })
+                .defaultIfEmpty(NOT_WAITING);
+    }
+
+    private Mono<Long> rank(final String queue, final Long userId, final AtomicReference<WaiterPosition> anchor, final QueueProgress progress) {
+        var rank = rank(anchor.get(), progress);
+        if (rank > 0) {
+            return Mono.just(rank);
+        }
+        return userQueueService.getWaiterPosition(queue, userId)
+                .map(position -> {
+                    anchor.set(position);
+                    // 방금 읽은 위치가 실제 위치이므로 누적 허용 인원 차이를 빼지 않습니다.
+                    return queueLaneProperties.weightedRank(position.lane(), position.position(), progress.waiting());
+                })
+                .defaultIfEmpty(NOT_WAITING);
+    }
+
+    private boolean isMeaningfulChange(final Long knownRank, final long rank) {
+        if (knownRank == null) {
+            return true;
+        }
+        var step = Math.max(1L, (long) Math.ceil(knownRank * queueEventProperties.getLongPollMinChangeRatio()));
+        return Math.abs(knownRank - rank) >= step;
+    }
+
+    /**
+     * 사용자가 속한 차선의 현재 위치로 차선 가중치를 반영한 순위를 계산합니다. 허용되었으면 0 이하를 반환합니다.
+     * 차선 안의 위치는 그 차선의 대기 인원보다 클 수 없으므로, 앞선 사용자의 이탈은 여기서 반영됩니다.
+     */
+    long rank(final WaiterPosition position, final QueueProgress progress) {
+        var current = Math.min(position.positionAt(progress), progress.waiting().get(position.lane()));
+        if (current <= 0) {
+            return current;
+        }
+        return queueLaneProperties.weightedRank(position.lane(), current, progress.waiting());
+    }
+
+    private Mono<WaiterEvent> rankEvent(final String queue, final long rank) {
+        return throughputTracker.estimate(queue, rank)
+                .map(eta -> new WaiterEvent.Rank(rank, eta));
+    }
+
+    private Mono<WaiterEvent> admittedEvent(final String queue, final Long userId) {
+        return userQueueService.isAllowed(queue, userId)
+                .flatMap(allowed -> allowed
+                        ? queuePolicyStore.get(queue)
+                                .flatMap(policy -> userQueueService.generateToken(queue, userId, policy.tokenTtl())
+                                        .map(token -> new WaiterEvent.Admitted(token, policy.tokenTtl().toSeconds())))
+                        : Mono.just(new WaiterEvent.Rank(-1, WaitEstimate.UNKNOWN)));
+    }
+}
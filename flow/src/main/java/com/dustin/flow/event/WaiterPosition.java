@@ -0,0 +1,18 @@
+package com.dustin.flow.event;
+
+/**
+ * 대기 중인 사용자의 위치입니다.
+ * 차선은 먼저 들어온 사용자부터 허용하므로, 같은 차선의 누적 허용 인원이 늘어난 만큼 위치가 앞당겨집니다.
+ * @param lane 사용자가 속한 차선 번호 (0부터, 차선 설정 순서)
+ * @param position 조회 시점의 1부터 시작하는 차선 안의 위치
+ * @param admitted 조회 시점의 차선 누적 허용 인원
+ */
+public record WaiterPosition(int lane, long position, long admitted) {
+
+    /**
+     * 대기열 진행 상황으로 현재 차선 안의 위치를 계산합니다. 0 이하이면 이미 허용된 것입니다.
+     */
+    public long positionAt(final QueueProgress progress) {
+        return position - (progress.admitted().get(lane) - admitted);
+    }
+}
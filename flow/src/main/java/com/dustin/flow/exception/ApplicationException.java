@@ -1,13 +1,30 @@
 package com.dustin.flow.exception;
 
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import org.springframework.http.HttpStatus;
 
-@AllArgsConstructor
+/**
+ * 클라이언트에 HTTP 상태 코드와 오류 코드로 응답할 애플리케이션 예외입니다.
+ * 중복 등록처럼 정상 흐름에서 자주 발생하는 예외는 스택 트레이스를 채우지 않는 방식(ErrorCode.buildStackless)으로 만들어,
+ * 새로 고침이 몰릴 때 스택을 훑는 비용이 들지 않도록 합니다.
+ */
 @Getter
 public class ApplicationException extends RuntimeException{
     private HttpStatus httpStatus;
     private String code;
     private String reason;
+
+    public ApplicationException(HttpStatus httpStatus, String code, String reason) {
+        this(httpStatus, code, reason, true);
+    }
+
+    /**
+     * @param writableStackTrace false이면 스택 트레이스를 채우지 않습니다.
+     */
+    public ApplicationException(HttpStatus httpStatus, String code, String reason, boolean writableStackTrace) {
+        super(reason, null, writableStackTrace, writableStackTrace);
+        this.httpStatus = httpStatus;
+        this.code = code;
+        this.reason = reason;
+    }
 }
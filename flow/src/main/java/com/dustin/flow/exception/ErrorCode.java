@@ -5,7 +5,10 @@ import org.springframework.http.HttpStatus;
 
 @AllArgsConstructor
 public enum ErrorCode {
-    QUEUE_ALREADY_REGISTERED_USER(HttpStatus.CONFLICT, "UQ-0001", "Already registered in queue");
+    QUEUE_ALREADY_REGISTERED_USER(HttpStatus.CONFLICT, "UQ-0001", "Already registered in queue"),
+    QUEUE_NOT_ALLOWED_USER(HttpStatus.FORBIDDEN, "UQ-0002", "Not allowed to proceed"),
+    QUEUE_UNKNOWN_LANE(HttpStatus.BAD_REQUEST, "UQ-0003", "Unknown lane %s"),
+    QUEUE_LANE_NOT_PERMITTED(HttpStatus.FORBIDDEN, "UQ-0004", "Lane %s requires a valid lane pass");
 
     private final HttpStatus httpStatus;
     private final String code;
@@ -18,4 +21,13 @@ public enum ErrorCode {
     public ApplicationException build(Object ...args) {
         return new ApplicationException(httpStatus, code, reason.formatted(args));
     }
+
+    // 정상 흐름에서 자주 발생하는 예외용으로, 스택 트레이스를 채우지 않습니다.
+    public ApplicationException buildStackless() {
+        return new ApplicationException(httpStatus, code, reason, false);
+    }
+
+    public ApplicationException buildStackless(Object ...args) {
+        return new ApplicationException(httpStatus, code, reason.formatted(args), false);
+    }
 }
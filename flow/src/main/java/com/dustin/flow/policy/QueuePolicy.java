@@ -0,0 +1,35 @@
+package com.dustin.flow.policy;
+
+import com.dustin.flow.service.AdmissionLimit;
+
+import java.time.Duration;
+
+/**
+ * 대기열별 허용 정책입니다. Redis에 저장된 값이 없는 항목은 애플리케이션 설정 값을 따릅니다.
+ * @param rate 목표 허용 속도 (초당 사용자 수)
+ * @param burst 토큰 버킷 크기
+ * @param maxActiveUsers 동시 활성 사용자 상한 (0이면 제한 없음)
+ * @param tokenTtl 대기열 통과 토큰의 유효 기간
+ * @param weight 공정 분배 모드에서 전체 허용 인원을 나눌 때의 가중치
+ * @param paused 일시 정지 여부. 정지된 대기열은 등록은 받지만 허용하지 않습니다.
+ */
+public record QueuePolicy(double rate, long burst, long maxActiveUsers, Duration tokenTtl, double weight, boolean paused) {
+
+    /**
+     * 정책으로 한 번의 허용 작업에 적용할 제한을 만듭니다. 한 번에 허용할 최대 인원은 버킷 크기입니다.
+     * 허용된 사용자는 통과 토큰이 유효한 동안(tokenTtl) 활성 사용자로 간주합니다.
+     * @param fencingToken 대기열 소유권의 펜싱 토큰
+     */
+    public AdmissionLimit toLimit(final long fencingToken) {
+        return new AdmissionLimit(burst, maxActiveUsers, tokenTtl, rate, burst, fencingToken);
+    }
+
+    /**
+     * 공정 분배 모드에서 할당받은 인원만큼 허용할 제한을 만듭니다. 토큰 버킷은 사용하지 않습니다.
+     * @param maxCount 할당받은 인원
+     * @param fencingToken 대기열 소유권의 펜싱 토큰
+     */
+    public AdmissionLimit toFairLimit(final long maxCount, final long fencingToken) {
+        return new AdmissionLimit(maxCount, maxActiveUsers, tokenTtl, 0, 0, fencingToken);
+    }
+}
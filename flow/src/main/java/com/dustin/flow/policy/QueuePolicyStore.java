@@ -0,0 +1,145 @@
+package com.dustin.flow.policy;
+
+import com.dustin.flow.admission.AdmissionProperties;
+import com.dustin.flow.dto.QueuePolicyRequest;
+import com.dustin.flow.token.QueueTokenProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * QueuePolicyStore는 대기열별 허용 정책을 Redis 해시에 저장하고 노드마다 로컬에 캐시합니다.
+ * 정책이 바뀌면 변경 채널로 대기열 이름을 발행하고, 모든 노드는 해당 대기열의 캐시를 비워
+ * 다음 허용 주기부터 재시작 없이 새 정책을 적용합니다.
+ * 발행된 메시지를 놓치더라도 캐시는 queue.policy.cache-ttl이 지나면 다시 읽습니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class QueuePolicyStore {
+
+    private final ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+
+    // 정책 값이 없는 항목의 기본값
+    private final AdmissionProperties admissionProperties;
+
+    private final QueueTokenProperties queueTokenProperties;
+
+    // 대기열별 정책을 저장하는 해시 키 형식
+    private final String USER_QUEUE_POLICY_KEY = "users:queue:%s:policy";
+
+    // 정책이 바뀐 대기열 이름을 발행하는 채널
+    private final String USER_QUEUE_POLICY_CHANNEL = "users:queue:policy:changed";
+
+    private static final String RATE = "rate";
+    private static final String BURST = "burst";
+    private static final String MAX_ACTIVE_USERS = "max-active-users";
+    private static final String TOKEN_TTL = "token-ttl"; // 초 단위
+    private static final String WEIGHT = "weight";
+    private static final String PAUSED = "paused";
+
+    private final Map<String, CachedPolicy> cache = new ConcurrentHashMap<>();
+
+    // 로컬 캐시 유효 시간. 변경 알림을 놓쳤을 때의 최대 반영 지연입니다.
+    @Value("${queue.policy.cache-ttl:30s}")
+    private Duration cacheTtl = Duration.ofSeconds(30);
+
+    private Disposable subscription;
+
+    /**
+     * 정책 변경 채널을 구독합니다. 연결이 끊겼다가 다시 구독하면 그사이 놓친 변경이 있을 수 있으므로 캐시를 모두 비웁니다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void subscribe() {
+        subscription = reactiveRedisTemplate.listenToChannel(USER_QUEUE_POLICY_CHANNEL)
+                .doOnSubscribe(s -> cache.clear())
+                .doOnNext(message -> cache.remove(message.getMessage()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.warn("Policy subscription failed, retrying", signal.failure())))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * 대기열의 정책을 반환합니다. 캐시가 유효하면 Redis를 조회하지 않습니다.
+     * @param queue 대기열의 이름
+     * @return 대기열의 정책을 나타내는 Mono<QueuePolicy>
+     */
+    public Mono<QueuePolicy> get(final String queue) {
+        var cached = cache.get(queue);
+        if (cached != null && cached.expiresAt() > System.currentTimeMillis()) {
+            return Mono.just(cached.policy());
+        }
+        return reactiveRedisTemplate.<String, String>opsForHash().entries(USER_QUEUE_POLICY_KEY.formatted(queue))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .map(this::toPolicy)
+                .doOnNext(policy -> cache.put(queue, new CachedPolicy(policy, System.currentTimeMillis() + cacheTtl.toMillis())));
+    }
+
+    /**
+     * 대기열의 정책을 변경하고 모든 노드에 알립니다. 요청에 값이 있는 항목만 변경합니다.
+     * @param queue 대기열의 이름
+     * @param request 변경할 정책 항목
+     * @return 변경된 정책을 나타내는 Mono<QueuePolicy>
+     */
+    public Mono<QueuePolicy> update(final String queue, final QueuePolicyRequest request) {
+        var fields = new HashMap<String, String>();
+        if (request.rate() != null) {
+            fields.put(RATE, request.rate().toString());
+        }
+        if (request.burst() != null) {
+            fields.put(BURST, request.burst().toString());
+        }
+        if (request.maxActiveUsers() != null) {
+            fields.put(MAX_ACTIVE_USERS, request.maxActiveUsers().toString());
+        }
+        if (request.tokenTtlSeconds() != null) {
+            fields.put(TOKEN_TTL, request.tokenTtlSeconds().toString());
+        }
+        if (request.weight() != null) {
+            fields.put(WEIGHT, request.weight().toString());
+        }
+        if (request.paused() != null) {
+            fields.put(PAUSED, request.paused().toString());
+        }
+        var changed = fields.isEmpty()
+                ? Mono.<Boolean>empty()
+                : reactiveRedisTemplate.<String, String>opsForHash().putAll(USER_QUEUE_POLICY_KEY.formatted(queue), fields);
+        return changed
+                .then(reactiveRedisTemplate.convertAndSend(USER_QUEUE_POLICY_CHANNEL, queue)) // 다른 노드의 캐시를 비웁니다.
+                .then(Mono.fromRunnable(() -> cache.remove(queue)))
+                .then(Mono.defer(() -> get(queue)));
+    }
+
+    private QueuePolicy toPolicy(final Map<String, String> fields) {
+        return new QueuePolicy(
+                fields.containsKey(RATE) ? Double.parseDouble(fields.get(RATE)) : admissionProperties.getTargetRate(),
+                fields.containsKey(BURST) ? Long.parseLong(fields.get(BURST)) : admissionProperties.getBurst(),
+                fields.containsKey(MAX_ACTIVE_USERS) ? Long.parseLong(fields.get(MAX_ACTIVE_USERS)) : admissionProperties.getMaxActiveUsers(),
+                fields.containsKey(TOKEN_TTL) ? Duration.ofSeconds(Long.parseLong(fields.get(TOKEN_TTL))) : queueTokenProperties.getTtl(),
+                fields.containsKey(WEIGHT) ? Double.parseDouble(fields.get(WEIGHT)) : 1.0,
+                Boolean.parseBoolean(fields.get(PAUSED)));
+    }
+
+    private record CachedPolicy(QueuePolicy policy, long expiresAt) {
+    }
+}
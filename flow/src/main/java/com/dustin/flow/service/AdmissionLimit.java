@@ -0,0 +1,29 @@
+package com.dustin.flow.service;
+
+import java.time.Duration;
+
+/**
+ * 한 번의 허용 작업에 적용할 제한입니다.
+ * @param maxCount 이번에 허용할 최대 사용자 수
+ * @param maxActiveUsers 동시 활성 사용자 상한 (0이면 제한 없음)
+ * @param activeTtl 허용된 사용자가 활성 상태로 간주되는 시간
+ * @param rate 토큰 버킷 충전 속도, 초당 사용자 수 (0이면 버킷을 사용하지 않음)
+ * @param burst 토큰 버킷 크기, 한동안 허용이 없었을 때 한 번에 허용할 수 있는 최대 인원
+ * @param fencingToken 대기열 소유권의 펜싱 토큰 (0이면 검사하지 않음)
+ */
+public record AdmissionLimit(long maxCount, long maxActiveUsers, Duration activeTtl, double rate, long burst, long fencingToken) {
+
+    /**
+     * 다른 제한 없이 최대 count명을 허용합니다.
+     */
+    public static AdmissionLimit of(final long count) {
+        return new AdmissionLimit(count, 0, Duration.ZERO, 0, 0, 0);
+    }
+
+    /**
+     * 펜싱 토큰만 바꾼 제한을 반환합니다.
+     */
+    public AdmissionLimit withFencingToken(final long fencingToken) {
+        return new AdmissionLimit(maxCount, maxActiveUsers, activeTtl, rate, burst, fencingToken);
+    }
+}
@@ -0,0 +1,49 @@
+package com.dustin.flow.service;
+
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 하나의 대기열 안에 두는 우선순위 차선(lane) 설정입니다.
+ * 허용 작업은 차선별 가중치 비율로 각 차선에서 사용자를 꺼내며, 순위도 같은 비율을 반영해 계산합니다.
+ * general 차선은 기존 대기열 키(users:queue:%s:wait)를 그대로 사용하고, 나머지 차선은 users:queue:%s:wait:{차선}을 사용합니다.
+ */
+@Getter
+@Setter
+@Validated
+@ConfigurationProperties(prefix = "queue.lane")
+public class QueueLaneProperties {
+
+    // 차선을 지정하지 않은 등록이 들어가는 차선
+    public static final String GENERAL = "general";
+
+    // 차선 이름별 가중치 (설정 순서가 스크립트에 전달되는 차선 순서입니다)
+    private Map<String, @Positive Double> weights = new LinkedHashMap<>(Map.of(GENERAL, 1.0));
+
+    /**
+     * 차선 안의 위치로 차선 가중치를 반영한 순위를 계산합니다. (get-rank.lua와 같은 계산입니다)
+     * 위치가 position인 사용자가 허용되기 전까지 다른 차선에서 가중치 비율만큼 먼저 허용되는 인원을 더합니다.
+     * @param lane 사용자가 속한 차선 번호 (0부터, 설정 순서)
+     * @param position 1부터 시작하는 차선 안의 위치
+     * @param waiting 차선별 대기 인원 (설정 순서)
+     * @return 1부터 시작하는 순위
+     */
+    public long weightedRank(final int lane, final long position, final List<Long> waiting) {
+        var laneWeights = List.copyOf(weights.values());
+        var weight = laneWeights.get(lane);
+        var rank = position;
+        for (int i = 0; i < laneWeights.size(); i++) {
+            if (i != lane) {
+                rank += Math.min(waiting.get(i), (long) Math.floor(position * laneWeights.get(i) / weight));
+            }
+        }
+        return rank;
+    }
+}
@@ -0,0 +1,9 @@
+package com.dustin.flow.service;
+
+/**
+ * 대기열 등록 결과입니다. 이미 등록된 사용자도 예외 없이 현재 순위와 함께 반환합니다.
+ * @param registered 이번에 새로 등록되었으면 true, 이미 대기열에 있었으면 false
+ * @param rank 차선 가중치를 반영한 1부터 시작하는 순위
+ */
+public record Registration(boolean registered, long rank) {
+}
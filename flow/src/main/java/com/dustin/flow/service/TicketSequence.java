@@ -0,0 +1,100 @@
+package com.dustin.flow.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * TicketSequence는 대기열마다 단조 증가하는 번호표(ticket)를 발급합니다.
+ * 번호표는 대기열 ZSET의 점수로 사용되어 같은 초에 등록한 사용자들도 등록 순서대로 정렬되도록 합니다.
+ * Redis의 INCRBY로 blockSize 만큼의 구간을 한 번에 할당받아 노드 메모리에서 나누어 주므로,
+ * 카운터 키에 대한 호출은 blockSize 건의 등록마다 한 번으로 줄어듭니다.
+ * 노드마다 다른 구간에서 번호표를 나누어 주므로, 먼저 할당받은 구간을 쓰는 노드에 나중에 등록한 사용자가
+ * 다른 노드에 먼저 등록한 사용자보다 앞설 수 있습니다. 이 역전은 구간 크기가 아니라 구간이 쓰이는 시간에 비례하므로,
+ * 등록이 적은 노드에서는 오래 남을 수 있습니다. 이를 막기 위해 blockMaxAge보다 오래된 구간은 남은 번호표를 버리고
+ * 새 구간을 할당받으며, 노드 간 순서 역전은 blockMaxAge 안에 등록한 사용자들 사이로 한정됩니다.
+ * 버린 번호표와 다른 노드의 구간 때문에 번호표에는 빈 번호가 생기므로, 번호표 차이로 순위를 추정하는 대기열은
+ * 이 클래스 대신 등록 스크립트가 빈 번호 없이 발급하는 번호표를 사용합니다(UserQueueService.nextTicket).
+ */
+@Component
+@RequiredArgsConstructor
+public class TicketSequence {
+
+    private final ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+
+    // 대기열별 번호표 카운터 키 형식
+    private final String USER_QUEUE_TICKET_KEY = "users:queue:%s:ticket";
+
+    // 한 번에 할당받을 번호표 개수
+    @Value("${queue.ticket.block-size:100}")
+    private Long blockSize = 100L;
+
+    // 할당받은 구간을 사용할 최대 시간 (노드 간 순서 역전의 상한)
+    @Value("${queue.ticket.block-max-age:1s}")
+    private Duration blockMaxAge = Duration.ofSeconds(1);
+
+    // 대기열별로 노드가 할당받은 번호표 구간
+    private final Map<String, TicketBlock> blocks = new ConcurrentHashMap<>();
+
+    /**
+     * 다음 번호표를 발급합니다.
+     * @param queue 대기열의 이름
+     * @return 1부터 시작하는 번호표를 나타내는 Mono<Long>
+     */
+    public Mono<Long> next(final String queue) {
+        return Mono.defer(() -> {
+            var block = blocks.computeIfAbsent(queue, q -> new TicketBlock());
+            var ticket = block.take(blockMaxAge.toNanos());
+            if (ticket > 0) {
+                return Mono.just(ticket); // 할당받은 구간이 오래되지 않았고 남은 번호표가 있으면 Redis 호출 없이 발급
+            }
+            return block.refill(() -> reactiveRedisTemplate.opsForValue().increment(USER_QUEUE_TICKET_KEY.formatted(queue), blockSize), blockSize)
+                    .then(next(queue)); // 새 구간을 할당받은 뒤 다시 시도
+        });
+    }
+
+    /**
+     * 노드가 할당받은 번호표 구간 [next, last]를 관리합니다.
+     * 구간이 소진되거나 오래되면 동시에 들어온 요청들이 하나의 INCRBY 결과를 공유하도록 진행 중인 할당을 캐시합니다.
+     */
+    private static final class TicketBlock {
+        private long next = 1;
+        private long last = 0;
+        private long assignedAt; // System.nanoTime 기준
+        private Mono<Long> refilling;
+
+        synchronized long take(final long maxAgeNanos) {
+            if (next > last || System.nanoTime() - assignedAt > maxAgeNanos) {
+                return -1L;
+            }
+            return next++;
+        }
+
+        synchronized Mono<Long> refill(final Supplier<Mono<Long>> allocator, final long size) {
+            if (refilling == null) {
+                refilling = allocator.get()
+                        .doOnNext(end -> assign(end, size))
+                        .doFinally(signal -> clear())
+                        .cache();
+            }
+            return refilling;
+        }
+
+        private synchronized void assign(final long end, final long size) {
+            next = end - size + 1;
+            last = end;
+            assignedAt = System.nanoTime();
+        }
+
+        private synchronized void clear() {
+            refilling = null;
+        }
+    }
+}
@@ -1,28 +1,34 @@
 package com.dustin.flow.service;
 
+import com.dustin.flow.eta.EtaProperties;
+import com.dustin.flow.eta.ThroughputTracker;
+import com.dustin.flow.event.QueueProgress;
+import com.dustin.flow.event.WaiterPosition;
 import com.dustin.flow.exception.ErrorCode;
+import com.dustin.flow.token.QueueTokenProperties;
+import com.dustin.queue.token.QueueTokenSigner;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.core.ScanOptions;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.util.function.Tuples;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 
 /**
  * UserQueueService는 대기열 시스템에서 사용자를 관리하는 서비스 클래스입니다.
  * 이 클래스는 사용자가 대기열에 등록하고, 특정 사용자들을 대기열에서 진행할 수 있도록 허용하는 등의 기능을 제공합니다.
  * ReactiveRedisTemplate을 사용하여 비동기적으로 Redis에 데이터를 저장하고 조회합니다.
- * 스케줄러를 통해 주기적으로 대기열에서 사용자를 허용하는 작업도 수행합니다.
+ * 주기적인 허용 작업은 AdmissionScheduler가 이 클래스를 통해 수행합니다.
  */
-@Slf4j // 로깅을 위한 Lombok 어노테이션
 @Service // 스프링 서비스 빈으로 등록
 @RequiredArgsConstructor // 생성자 주입을 위한 Lombok 어노테이션
 public class UserQueueService {
@@ -30,44 +36,256 @@ public class UserQueueService {
     // ReactiveRedisTemplate을 사용해 비동기적으로 Redis와 상호작용합니다.
     private final ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
 
-    // 대기열에서 사용자를 기다리게 하는 키 형식
+    // 대기열 점수로 사용할 번호표를 발급합니다.
+    private final TicketSequence ticketSequence;
+
+    // 대기열 통과 토큰을 서명하고 검증합니다.
+    private final QueueTokenSigner queueTokenSigner;
+
+    private final QueueTokenProperties queueTokenProperties;
+
+    // 대기열 안의 우선순위 차선과 가중치
+    private final QueueLaneProperties queueLaneProperties;
+
+    // 허용 스크립트가 처리량을 기록할 키와 이동 평균의 시간 상수를 제공합니다.
+    private final ThroughputTracker throughputTracker;
+
+    private final EtaProperties etaProperties;
+
+    // 대기열에서 사용자를 기다리게 하는 키 형식 (general 차선)
     private final String USER_QUEUE_WAIT_KEY = "users:queue:%s:wait";
 
-    // 모든 대기열 키를 스캔하기 위한 패턴
-    private final String USER_QUEUE_WAIT_KEY_FOR_SCAN = "users:queue:*:wait";
+    // general 이외의 차선에서 사용자를 기다리게 하는 키 형식
+    private final String USER_QUEUE_LANE_WAIT_KEY = "users:queue:%s:wait:%s";
 
     // 진행 중인 사용자를 관리하는 키 형식
     private final String USER_QUEUE_PROCEED_KEY = "users:queue:%s:proceed";
 
-    // 스케줄러 활성화 여부를 결정하는 설정 값
-    @Value("${scheduler.enabled}")
-    private Boolean scheduling = false;
+    // 대기열 목록 도입 이전의 대기열 키를 찾기 위한 패턴
+    private final String USER_QUEUE_WAIT_KEY_FOR_SCAN = "users:queue:*:wait";
+
+    // 대기 중인 사용자가 있는 대기열 이름을 모아두는 키 (등록 시 추가되고, 비워지면 제거됩니다)
+    private final String USER_QUEUE_REGISTRY_KEY = "users:queue:registry";
+
+    // 대기열 소유권 펜싱 토큰 키 형식 (QueueOwnership이 관리합니다)
+    private final String USER_QUEUE_FENCE_KEY = "users:queue:%s:fence";
+
+    // 대기열별 허용 속도를 제한하는 토큰 버킷 키 형식 (남은 토큰 수와 마지막 충전 시각을 저장합니다)
+    private final String USER_QUEUE_BUCKET_KEY = "users:queue:%s:bucket";
+
+    // 차선별 누적 허용 인원을 기록하는 해시 키 형식 (필드는 차선 대기열 키)
+    private final String USER_QUEUE_ADMITTED_KEY = "users:queue:%s:admitted";
+
+    // 번호표 카운터 키 형식 (추정 순위를 쓰는 대기열은 등록 스크립트가, 나머지는 TicketSequence가 사용합니다)
+    private final String USER_QUEUE_TICKET_KEY = "users:queue:%s:ticket";
+
+    // 지금까지 허용된 마지막 번호표를 기록하는 키 형식
+    private final String USER_QUEUE_SERVED_KEY = "users:queue:%s:served";
+
+    // 허용 작업이 대기열 진행 상황을 발행하는 채널
+    private final String USER_QUEUE_PROGRESS_CHANNEL = "users:queue:%s:progress";
+
+    // 등록과 순위 조회를 한 번에 수행하는 스크립트 (EVALSHA로 실행되며, 캐시에 없으면 EVAL로 한 번 적재됩니다)
+    private static final RedisScript<List> REGISTER_WAIT_QUEUE_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/register-wait-queue.lua"), List.class);
+
+    // 대기열에서 꺼내 진행 목록으로 옮기는 작업을 한 번에 수행하는 스크립트
+    private static final RedisScript<Long> ALLOW_USER_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/allow-user.lua"), Long.class);
+
+    // 사용자가 속한 차선을 찾아 차선 가중치를 반영한 순위를 계산하는 스크립트
+    private static final RedisScript<Long> GET_RANK_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/get-rank.lua"), Long.class);
+
+    // 대기 중인 사용자의 차선, 위치, 차선 누적 허용 인원을 읽는 스크립트
+    private static final RedisScript<List> WAITER_POSITION_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/waiter-position.lua"), List.class);
+
+    // 대기열의 차선별 누적 허용 인원과 대기 인원을 읽는 스크립트
+    private static final RedisScript<List> QUEUE_PROGRESS_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/queue-progress.lua"), List.class);
+
+    // 대기실에 들어온 사용자의 상태 확인과 등록을 한 번에 수행하는 스크립트
+    private static final RedisScript<List> ENTER_WAITING_ROOM_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/enter-waiting-room.lua"), List.class);
+
+    // 번호표와 처리된 번호표로 순위를 추정하는 스크립트
+    private static final RedisScript<Long> ESTIMATE_RANK_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/estimate-rank.lua"), Long.class);
+
+    // 번호표 기반 추정 순위를 사용할 대기열 목록 (중간 이탈이 없는 대기열에만 사용합니다)
+    @Value("${queue.rank.estimated-queues:}")
+    private Set<String> estimatedRankQueues = Set.of();
 
     /**
-     * 사용자를 대기열에 등록하는 메서드입니다.
+     * 사용자를 대기열의 general 차선에 등록하는 메서드입니다.
      * @param queue 등록할 대기열의 이름
      * @param userId 등록할 사용자의 ID
      * @return 사용자 순위를 나타내는 Mono<Long>
      */
     public Mono<Long> registerWaitQueue(final String queue, final Long userId) {
-        var unixTimestamp = Instant.now().getEpochSecond(); // 현재 시간을 Unix 타임스탬프로 가져옵니다.
-        return reactiveRedisTemplate.opsForZSet().add(USER_QUEUE_WAIT_KEY.formatted(queue), userId.toString(), unixTimestamp)
-                .filter(i -> i) // 성공적으로 추가된 경우에만 진행
-                .switchIfEmpty(Mono.error(ErrorCode.QUEUE_ALREADY_REGISTERED_USER.build())) // 이미 등록된 경우 에러 반환
-                .flatMap(i -> reactiveRedisTemplate.opsForZSet().rank(USER_QUEUE_WAIT_KEY.formatted(queue), userId.toString())) // 사용자 순위 반환
-                .map(i -> i >= 0 ? i + 1 : i); // 0부터 시작하는 순위를 1부터 시작하도록 변환
+        return registerWaitQueue(queue, userId, QueueLaneProperties.GENERAL);
+    }
+
+    /**
+     * 사용자를 대기열의 지정한 차선에 등록하는 메서드입니다. 이미 등록된 경우 QUEUE_ALREADY_REGISTERED_USER 오류를 반환합니다.
+     * 중복 등록을 예외 없이 다뤄야 하는 내부 호출은 register를 사용합니다.
+     * @param queue 등록할 대기열의 이름
+     * @param userId 등록할 사용자의 ID
+     * @param lane 등록할 차선의 이름
+     * @return 차선 가중치를 반영한 사용자 순위를 나타내는 Mono<Long>
+     */
+    public Mono<Long> registerWaitQueue(final String queue, final Long userId, final String lane) {
+        return register(queue, userId, lane)
+                .filter(Registration::registered) // 성공적으로 추가된 경우에만 진행
+                .map(Registration::rank)
+                .switchIfEmpty(Mono.error(ErrorCode.QUEUE_ALREADY_REGISTERED_USER::buildStackless)); // 이미 등록된 경우 에러 반환
+    }
+
+    /**
+     * 사용자를 대기열의 지정한 차선에 등록하고, 이미 어느 차선에든 있으면 등록하지 않고 현재 순위를 반환합니다.
+     * 중복 확인(모든 차선), 추가, 순위 계산을 하나의 Lua 스크립트로 원자적으로 수행하므로 Redis 왕복은 한 번이며,
+     * 새로 고침처럼 흔한 중복 등록에 예외를 만들지 않습니다.
+     * 점수로는 단조 증가하는 번호표를 사용하므로 같은 초에 등록한 사용자들도 등록 순서(FIFO)대로 정렬됩니다.
+     * @param queue 등록할 대기열의 이름
+     * @param userId 등록할 사용자의 ID
+     * @param lane 등록할 차선의 이름
+     * @return 등록 여부와 차선 가중치를 반영한 사용자 순위를 나타내는 Mono<Registration>
+     */
+    public Mono<Registration> register(final String queue, final Long userId, final String lane) {
+        var lanes = List.copyOf(queueLaneProperties.getWeights().keySet());
+        var laneIndex = lanes.indexOf(lane);
+        if (laneIndex < 0) {
+            return Mono.error(ErrorCode.QUEUE_UNKNOWN_LANE.build(lane));
+        }
+        var keys = new ArrayList<String>(lanes.size() + 2);
+        keys.add(USER_QUEUE_REGISTRY_KEY);
+        keys.add(USER_QUEUE_TICKET_KEY.formatted(queue));
+        keys.addAll(laneWaitKeys(queue));
+        return nextTicket(queue)
+                .flatMap(ticket -> {
+                    var args = new ArrayList<>(List.of(userId.toString(), ticket.toString(), queue, String.valueOf(laneIndex + 1)));
+                    args.addAll(laneWeights());
+                    return reactiveRedisTemplate.execute(REGISTER_WAIT_QUEUE_SCRIPT, keys, args).next();
+                })
+                .map(result -> new Registration((Long) result.get(0) == 1L, (Long) result.get(1)));
+    }
+
+    /**
+     * 대기실에 들어온 사용자가 이미 허용되었는지, 대기 중인지 확인하고, 둘 다 아니면 general 차선에 등록합니다.
+     * 확인과 등록을 하나의 Lua 스크립트로 원자적으로 수행하므로, 다시 방문한 사용자도 Redis 왕복 한 번으로 판단하며 예외를 만들지 않습니다.
+     * @param queue 대기열의 이름
+     * @param userId 사용자의 ID
+     * @return 판단 결과를 나타내는 Mono<WaitingRoomEntry>
+     */
+    public Mono<WaitingRoomEntry> enterWaitingRoom(final String queue, final Long userId) {
+        var keys = new ArrayList<String>();
+        keys.add(USER_QUEUE_PROCEED_KEY.formatted(queue));
+        keys.add(USER_QUEUE_REGISTRY_KEY);
+        keys.add(USER_QUEUE_TICKET_KEY.formatted(queue));
+        keys.addAll(laneWaitKeys(queue));
+        var laneIndex = List.copyOf(queueLaneProperties.getWeights().keySet()).indexOf(QueueLaneProperties.GENERAL);
+        if (laneIndex < 0) {
+            return Mono.error(ErrorCode.QUEUE_UNKNOWN_LANE.build(QueueLaneProperties.GENERAL));
+        }
+        return nextTicket(queue)
+                .flatMap(ticket -> {
+                    var args = new ArrayList<>(List.of(userId.toString(), ticket.toString(), queue, String.valueOf(laneIndex + 1)));
+                    args.addAll(laneWeights());
+                    return reactiveRedisTemplate.execute(ENTER_WAITING_ROOM_SCRIPT, keys, args).next();
+                })
+                .map(result -> new WaitingRoomEntry(
+                        WaitingRoomEntry.Status.values()[((Long) result.get(0)).intValue()], (Long) result.get(1)));
+    }
+
+    /**
+     * 등록 스크립트에 넘길 번호표를 발급합니다.
+     * 추정 순위를 쓰는 대기열은 번호표에 빈 번호가 없어야 하므로 0을 넘겨, 스크립트가 실제로 등록할 때만 카운터에서 발급하게 합니다.
+     * 나머지 대기열은 노드가 구간 단위로 할당받은 번호표(TicketSequence)를 사용합니다.
+     */
+    private Mono<Long> nextTicket(final String queue) {
+        return estimatedRankQueues.contains(queue) ? Mono.just(0L) : ticketSequence.next(queue);
     }
 
     /**
      * 지정된 수의 사용자를 대기열에서 허용합니다.
+     * 꺼내기(ZPOPMIN)와 진행 목록 추가(ZADD)를 하나의 스크립트로 수행하므로 허용 인원과 관계없이 Redis 호출은 한 번이며,
+     * 도중에 노드가 종료되어도 대기열에서 빠졌지만 진행 목록에 없는 사용자가 생기지 않습니다.
+     * 마지막으로 허용된 번호표는 처리된 번호표 키에 기록되어 추정 순위 계산에 사용됩니다.
      * @param queue 대기열의 이름
      * @param count 허용할 사용자 수
      * @return 허용된 사용자 수를 나타내는 Mono<Long>
      */
     public Mono<Long> allowUser(final String queue, final Long count) {
-        return reactiveRedisTemplate.opsForZSet().popMin(USER_QUEUE_WAIT_KEY.formatted(queue), count)
-                .flatMap(member -> reactiveRedisTemplate.opsForZSet().add(USER_QUEUE_PROCEED_KEY.formatted(queue), member.getValue(), Instant.now().getEpochSecond())) // 허용된 사용자를 진행 중으로 이동
-                .count(); // 허용된 사용자 수 반환
+        return allowUser(queue, AdmissionLimit.of(count));
+    }
+
+    /**
+     * 주어진 제한을 모두 만족하는 범위에서 사용자를 대기열에서 허용합니다.
+     * 진행 목록에 들어간 지 activeTtl이 지난 사용자는 활성 사용자에서 제외(삭제)되며,
+     * 허용 인원은 maxCount, 동시 활성 사용자 상한의 남은 자리, 토큰 버킷에 쌓인 토큰 중 가장 작은 값입니다.
+     * 허용 인원은 차선 가중치 비율로 각 차선에 나누며, 대기 인원이 모자란 차선의 몫은 다른 차선에 돌아갑니다.
+     * 토큰 버킷은 대기열별로 Redis에 저장되고 호출 시점의 경과 시간만큼 채워지므로, 짧은 주기로 자주 호출해도
+     * 허용 속도는 rate를 넘지 않으며 주기 경계에서 한꺼번에 몰려 들어오는 일이 없습니다.
+     * 남은 자리 계산, 버킷 차감, 허용이 같은 스크립트 안에서 원자적으로 이루어집니다.
+     * 허용한 인원은 예상 대기 시간 계산을 위해 허용 처리량 이동 평균에도 기록됩니다.
+     * @param queue 대기열의 이름
+     * @param limit 이번 허용 작업에 적용할 제한
+     * @return 허용된 사용자 수를 나타내는 Mono<Long>
+     */
+    public Mono<Long> allowUser(final String queue, final AdmissionLimit limit) {
+        if (limit.maxCount() <= 0) {
+            return Mono.just(0L); // ZPOPMIN은 0 이하의 개수를 허용하지 않으므로 호출하지 않습니다.
+        }
+        var now = Instant.now();
+        var keys = new ArrayList<>(List.of(USER_QUEUE_PROCEED_KEY.formatted(queue), USER_QUEUE_SERVED_KEY.formatted(queue),
+                USER_QUEUE_REGISTRY_KEY, USER_QUEUE_FENCE_KEY.formatted(queue), USER_QUEUE_BUCKET_KEY.formatted(queue),
+                throughputTracker.throughputKey(queue), USER_QUEUE_ADMITTED_KEY.formatted(queue)));
+        keys.addAll(laneWaitKeys(queue));
+        var args = new ArrayList<>(List.of(String.valueOf(limit.maxCount()), String.valueOf(now.getEpochSecond()),
+                String.valueOf(limit.activeTtl().toSeconds()), String.valueOf(limit.maxActiveUsers()), queue,
+                String.valueOf(limit.fencingToken()), String.valueOf(now.toEpochMilli()),
+                String.valueOf(limit.rate()), String.valueOf(limit.burst()), String.valueOf(etaProperties.getWindow().toMillis()),
+                progressChannel(queue)));
+        args.addAll(laneWeights());
+        return reactiveRedisTemplate.execute(ALLOW_USER_SCRIPT, keys, args)
+                .next()
+                .defaultIfEmpty(0L); // 허용된 사용자 수 반환
+    }
+
+    /**
+     * 대기 중인 사용자가 있는 대기열 이름을 반환합니다.
+     * 키 공간 전체를 스캔하지 않고 대기열 목록(Set)만 읽으므로, 비용이 전체 키 수가 아니라 대기열 수에 비례합니다.
+     * @return 대기열 이름을 나타내는 Flux<String>
+     */
+    public Flux<String> getActiveQueues() {
+        return reactiveRedisTemplate.opsForSet().members(USER_QUEUE_REGISTRY_KEY);
+    }
+
+    /**
+     * 대기열의 모든 차선에서 기다리는 사용자 수를 반환합니다.
+     * @param queue 대기열의 이름
+     * @return 대기 중인 사용자 수를 나타내는 Mono<Long>
+     */
+    public Mono<Long> getWaitingCount(final String queue) {
+        return Flux.fromIterable(laneWaitKeys(queue))
+                .flatMap(key -> reactiveRedisTemplate.opsForZSet().size(key))
+                .reduce(0L, Long::sum);
+    }
+
+    /**
+     * 대기열 목록이 도입되기 전에 만들어진 대기열을 한 번의 키 스캔으로 찾아 대기열 목록에 추가합니다.
+     * 애플리케이션 시작 시 한 번만 호출합니다.
+     * @return 대기열 목록에 추가된 대기열 수를 나타내는 Mono<Long>
+     */
+    public Mono<Long> registerExistingQueues() {
+        return reactiveRedisTemplate.scan(ScanOptions.scanOptions()
+                        .match(USER_QUEUE_WAIT_KEY_FOR_SCAN) // 대기열 패턴으로 키 스캔
+                        .count(1000)
+                        .build())
+                .map(key -> key.substring("users:queue:".length(), key.length() - ":wait".length())) // 대기열 이름 추출
+                .flatMap(queue -> reactiveRedisTemplate.opsForSet().add(USER_QUEUE_REGISTRY_KEY, queue))
+                .reduce(0L, Long::sum);
     }
 
     /**
@@ -84,73 +302,145 @@ public class UserQueueService {
 
     /**
      * 사용자가 제공한 토큰이 유효한지 확인합니다.
+     * 토큰의 서명과 만료 시각만 검사하므로 Redis를 조회하지 않습니다.
      * @param queue 대기열의 이름
      * @param userId 사용자의 ID
      * @param token 사용자가 제공한 토큰
      * @return 토큰이 유효한지 나타내는 Mono<Boolean>
      */
     public Mono<Boolean> isAllowedByToken(final String queue, final Long userId, final String token) {
-        return this.generateToken(queue, userId)
-                .filter(gen -> gen.equalsIgnoreCase(token)) // 생성된 토큰과 제공된 토큰을 비교
-                .map(i -> true) // 일치하면 true 반환
-                .defaultIfEmpty(false); // 일치하지 않으면 false 반환
+        return Mono.fromSupplier(() -> queueTokenSigner.verify(queue, userId, token, Instant.now().getEpochSecond()));
     }
 
     /**
      * 사용자의 현재 대기열에서의 순위를 반환합니다.
+     * 차선이 여러 개면 사용자가 속한 차선 안의 위치에, 그 사이 다른 차선에서 가중치 비율만큼 먼저 허용될 인원을 더한 값입니다.
+     * 차선 수만큼의 O(1) 명령과 한 번의 ZRANK를 하나의 스크립트로 실행하므로 Redis 왕복은 한 번입니다.
+     * 추정 순위를 사용하도록 설정된 대기열은 ZRANK 대신 번호표와 처리된 번호표의 차이로 순위를 계산합니다.
      * @param queue 대기열의 이름
      * @param userId 사용자의 ID
      * @return 사용자의 대기열 순위를 나타내는 Mono<Long>
      */
     public Mono<Long> getRank(final String queue, final Long userId) {
-        return reactiveRedisTemplate.opsForZSet().rank(USER_QUEUE_WAIT_KEY.formatted(queue), userId.toString())
-                .defaultIfEmpty(-1L) // 사용자가 대기열에 없으면 -1 반환
-                .map(rank -> rank >= 0 ? rank + 1 : rank); // 0부터 시작하는 순위를 1부터 시작하도록 변환
+        if (estimatedRankQueues.contains(queue)) {
+            return getEstimatedRank(queue, userId);
+        }
+        var args = new ArrayList<String>();
+        args.add(userId.toString());
+        args.addAll(laneWeights());
+        return reactiveRedisTemplate.execute(GET_RANK_SCRIPT, laneWaitKeys(queue), args)
+                .next()
+                .defaultIfEmpty(-1L); // 사용자가 대기열에 없으면 -1 반환
+    }
+
+    /**
+     * 대기 중인 사용자의 차선과 차선 안의 위치를, 그 시점의 차선 누적 허용 인원과 함께 반환합니다.
+     * 이후 순위는 대기열 진행 상황(getProgress)만으로 사용자별 Redis 호출 없이 계산할 수 있습니다.
+     * @param queue 대기열의 이름
+     * @param userId 사용자의 ID
+     * @return 대기 위치를 나타내는 Mono<WaiterPosition>, 대기열에 없으면 빈 Mono
+     */
+    public Mono<WaiterPosition> getWaiterPosition(final String queue, final Long userId) {
+        var keys = new ArrayList<String>();
+        keys.add(USER_QUEUE_ADMITTED_KEY.formatted(queue));
+        keys.addAll(laneWaitKeys(queue));
+        return reactiveRedisTemplate.execute(WAITER_POSITION_SCRIPT, keys, List.of(userId.toString()))
+                .next()
+                .filter(result -> !result.isEmpty())
+                .map(result -> new WaiterPosition(((Long) result.get(0)).intValue() - 1, (Long) result.get(1), (Long) result.get(2)));
+    }
+
+    /**
+     * 대기열의 차선별 누적 허용 인원과 대기 인원을 반환합니다.
+     * @param queue 대기열의 이름
+     * @return 대기열 진행 상황을 나타내는 Mono<QueueProgress>
+     */
+    public Mono<QueueProgress> getProgress(final String queue) {
+        var keys = new ArrayList<String>();
+        keys.add(USER_QUEUE_ADMITTED_KEY.formatted(queue));
+        keys.addAll(laneWaitKeys(queue));
+        return reactiveRedisTemplate.execute(QUEUE_PROGRESS_SCRIPT, keys, List.of())
+                .next()
+                .map(result -> {
+                    var admitted = new ArrayList<Long>();
+                    var waiting = new ArrayList<Long>();
+                    for (int i = 0; i < result.size(); i += 2) {
+                        admitted.add((Long) result.get(i));
+                        waiting.add((Long) result.get(i + 1));
+                    }
+                    return new QueueProgress(List.copyOf(admitted), List.copyOf(waiting));
+                });
+    }
+
+    /**
+     * 허용 작업이 대기열 진행 상황(QueueProgress.parse 형식)을 발행하는 채널 이름을 반환합니다.
+     * @param queue 대기열의 이름
+     * @return 채널 이름
+     */
+    public String progressChannel(final String queue) {
+        return USER_QUEUE_PROGRESS_CHANNEL.formatted(queue);
+    }
+
+    /**
+     * 번호표에서 처리된 번호표를 뺀 값으로 순위를 추정합니다. 대기열 크기와 관계없이 O(1)입니다.
+     * 추정 순위를 쓰는 대기열의 번호표는 등록 스크립트가 실제 등록에만 하나의 카운터에서 빈 번호 없이 발급하므로(nextTicket),
+     * 앞선 사용자가 이탈하지 않았다면 추정 순위는 실제 순위와 같고, 오차는 앞에서 이탈(삭제)한 사용자 수만큼 실제 순위보다 큰 쪽으로만 생깁니다.
+     * 이탈이 잦은 대기열에서는 오차가 누적되므로 ZRANK 기반 순위를 사용해야 합니다.
+     * 차선을 고려하지 않으므로 general 차선만 사용하는 대기열에만 사용합니다.
+     * @param queue 대기열의 이름
+     * @param userId 사용자의 ID
+     * @return 사용자의 추정 순위를 나타내는 Mono<Long>, 대기열에 없으면 -1
+     */
+    public Mono<Long> getEstimatedRank(final String queue, final Long userId) {
+        return reactiveRedisTemplate.execute(ESTIMATE_RANK_SCRIPT,
+                        List.of(USER_QUEUE_WAIT_KEY.formatted(queue), USER_QUEUE_SERVED_KEY.formatted(queue)),
+                        List.of(userId.toString()))
+                .next()
+                .defaultIfEmpty(-1L);
     }
 
     /**
-     * 사용자의 대기열 등록에 대한 토큰을 생성합니다.
+     * 사용자의 대기열 통과 토큰을 기본 유효 기간(queue.token.ttl)으로 생성합니다.
      * @param queue 대기열의 이름
      * @param userId 사용자의 ID
      * @return 생성된 토큰을 나타내는 Mono<String>
      */
     public Mono<String> generateToken(final String queue, final Long userId) {
-        MessageDigest digest = null;
-        try {
-            digest = MessageDigest.getInstance("SHA-256"); // SHA-256 알고리즘을 사용해 해시 생성
-            var input = "user-queue-%s-%d".formatted(queue, userId); // 입력 데이터 생성
-            byte[] encodedHash = digest.digest(input.getBytes(StandardCharsets.UTF_8)); // 해시 계산
-
-            StringBuilder hexString = new StringBuilder();
-            for (byte aByte: encodedHash) {
-                hexString.append(String.format("%02x", aByte)); // 해시를 16진수 문자열로 변환
-            }
-            return Mono.just(hexString.toString()); // 변환된 문자열 반환
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException(e); // 알고리즘이 존재하지 않을 경우 예외 발생
-        }
+        return generateToken(queue, userId, queueTokenProperties.getTtl());
     }
 
     /**
-     * 스케줄러로 주기적으로 호출되어 대기열에서 사용자를 허용하는 작업을 수행합니다.
-     * initialDelay와 fixedDelay는 각각 처음 호출 시 지연 시간과 주기적 지연 시간을 나타냅니다.
+     * 사용자의 대기열 통과 토큰을 생성합니다.
+     * 토큰에는 대기열 이름, 사용자 ID, 만료 시각이 HMAC으로 서명되어 있어 위조할 수 없습니다.
+     * @param queue 대기열의 이름
+     * @param userId 사용자의 ID
+     * @param ttl 토큰의 유효 기간
+     * @return 생성된 토큰을 나타내는 Mono<String>
      */
-    @Scheduled(initialDelay = 5000, fixedDelay = 10000)
-    public void scheduleAllowUser() {
-        if (!scheduling) {
-            log.info("passed scheduling...");
-            return; // 스케줄링이 비활성화된 경우 작업을 건너뜁니다.
+    public Mono<String> generateToken(final String queue, final Long userId, final Duration ttl) {
+        return Mono.fromSupplier(() -> {
+            var expiresAt = Instant.now().plus(ttl).getEpochSecond(); // 토큰 만료 시각
+            return queueTokenSigner.sign(queue, userId, expiresAt);
+        });
+    }
+
+    /**
+     * 차선 설정 순서대로 대기열의 차선별 키를 반환합니다.
+     */
+    private List<String> laneWaitKeys(final String queue) {
+        var keys = new ArrayList<String>();
+        for (var lane : queueLaneProperties.getWeights().keySet()) {
+            keys.add(QueueLaneProperties.GENERAL.equals(lane)
+                    ? USER_QUEUE_WAIT_KEY.formatted(queue)
+                    : USER_QUEUE_LANE_WAIT_KEY.formatted(queue, lane));
         }
-        log.info("called scheduling...");
+        return keys;
+    }
 
-        var maxAllowUserCount = 100L; // 한번에 허용할 최대 사용자 수
-        reactiveRedisTemplate.scan(ScanOptions.scanOptions()
-                        .match(USER_QUEUE_WAIT_KEY_FOR_SCAN) // 대기열 패턴으로 키 스캔
-                        .count(100) // 스캔할 키의 최대 수
-                        .build())
-                .map(key -> key.split(":")[2]) // 대기열 이름 추출
-                .flatMap(queue -> allowUser(queue, maxAllowUserCount).map(allowed -> Tuples.of(queue, allowed))) // 각 대기열에서 사용자 허용
-                .doOnNext(tuple -> log.info("Tried %d and allowed %d members of %s queue".formatted(maxAllowUserCount, tuple.getT2(), tuple.getT1()))) // 허용된 사용자 수 로깅
-                .subscribe(); // 작업을 비동기적으로 실행
+    /**
+     * 차선 설정 순서대로 차선별 가중치를 스크립트 인자로 반환합니다.
+     */
+    private List<String> laneWeights() {
+        return queueLaneProperties.getWeights().values().stream().map(String::valueOf).toList();
     }
 }
@@ -0,0 +1,18 @@
+package com.dustin.flow.service;
+
+/**
+ * 대기실에 들어온 사용자에 대한 판단 결과입니다.
+ * @param status 사용자의 상태
+ * @param rank 차선 가중치를 반영한 1부터 시작하는 순위 (허용된 경우 0)
+ */
+public record WaitingRoomEntry(Status status, long rank) {
+
+    public enum Status {
+        // 이미 대기열을 통과해 진행 목록에 있습니다.
+        ADMITTED,
+        // 이번에 대기열에 새로 등록되었습니다.
+        REGISTERED,
+        // 이미 대기열에서 기다리고 있습니다.
+        WAITING
+    }
+}
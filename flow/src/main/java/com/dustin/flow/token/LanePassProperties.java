@@ -0,0 +1,25 @@
+package com.dustin.flow.token;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 우선순위 차선 통과증(lane pass)의 서명 설정입니다.
+ * 통과증은 사용자를 인증한 서비스(보호 대상 사이트 등)가 같은 키로 발급하며, 대기열 통과 토큰과 섞이지 않도록 별도의 키를 사용합니다.
+ * 키가 없으면 general 이외의 차선에는 등록할 수 없습니다.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "queue.lane-pass")
+public class LanePassProperties {
+
+    // 키 ID별 HMAC 비밀 값
+    private Map<String, String> keys = new LinkedHashMap<>();
+
+    // 새 통과증 서명에 사용할 키 ID (지정하지 않으면 첫 번째 키를 사용합니다)
+    private String activeKeyId;
+}
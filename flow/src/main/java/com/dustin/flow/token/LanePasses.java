@@ -0,0 +1,63 @@
+package com.dustin.flow.token;
+
+import com.dustin.queue.token.QueueTokenSigner;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+
+/**
+ * 우선순위 차선 통과증을 발급하고 검증합니다.
+ * 차선은 클라이언트가 고를 수 없고, 사용자를 인증한 서비스가 (차선, 대기열, 사용자 ID, 만료 시각)에 서명한 통과증으로만 정해집니다.
+ * 통과증 형식은 대기열 통과 토큰과 같으며(QueueTokenSigner), 서명 대상의 대기열 자리에 "{차선}:{대기열}"을 넣습니다.
+ */
+@Component
+public class LanePasses {
+
+    // 통과증 키가 없으면 null이며, 모든 통과증을 거부합니다.
+    private final QueueTokenSigner signer;
+
+    public LanePasses(LanePassProperties properties) {
+        if (properties.getKeys().isEmpty()) {
+            this.signer = null;
+            return;
+        }
+        var keys = new LinkedHashMap<String, byte[]>();
+        properties.getKeys().forEach((keyId, secret) -> keys.put(keyId, secret.getBytes(StandardCharsets.UTF_8)));
+        var activeKeyId = properties.getActiveKeyId() != null ? properties.getActiveKeyId() : keys.keySet().iterator().next();
+        this.signer = new QueueTokenSigner(keys, activeKeyId);
+    }
+
+    /**
+     * 사용자에게 차선 통과증을 발급합니다. 사용자를 인증한 서비스에서만 호출해야 합니다.
+     * @param queue 대기열의 이름
+     * @param lane 차선의 이름
+     * @param userId 사용자의 ID
+     * @param ttl 통과증 유효 기간
+     * @return 서명된 통과증
+     */
+    public String issue(String queue, String lane, Long userId, Duration ttl) {
+        if (signer == null) {
+            throw new IllegalStateException("queue.lane-pass.keys must be configured to issue lane passes");
+        }
+        return signer.sign(subject(queue, lane), userId, Instant.now().plus(ttl).getEpochSecond());
+    }
+
+    /**
+     * 통과증이 해당 대기열, 차선, 사용자에게 발급된 유효한 통과증인지 확인합니다.
+     * @return 유효하면 true, 통과증이 없거나 키가 설정되지 않았으면 false
+     */
+    public boolean verify(String queue, String lane, Long userId, String pass) {
+        if (signer == null || pass == null || pass.isEmpty()) {
+            return false;
+        }
+        return signer.verify(subject(queue, lane), userId, pass, Instant.now().getEpochSecond());
+    }
+
+    // 차선 이름은 설정 값이므로 앞에 두어 대기열 이름에 ':'가 있어도 모호하지 않게 합니다.
+    private String subject(String queue, String lane) {
+        return lane + ":" + queue;
+    }
+}
@@ -0,0 +1,34 @@
+package com.dustin.flow.token;
+
+import com.dustin.queue.token.QueueTokenSigner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+
+/**
+ * 설정된 키 목록으로 QueueTokenSigner 빈을 등록합니다.
+ * 키가 없거나 비어 있으면, 또는 개발용 비밀 값을 허용하지 않는데 사용하면 시작하지 않습니다.
+ */
+@Configuration
+public class QueueTokenConfig {
+
+    @Bean
+    public QueueTokenSigner queueTokenSigner(QueueTokenProperties properties) {
+        if (properties.getKeys().isEmpty()) {
+            throw new IllegalStateException("queue.token.keys must be configured");
+        }
+        var keys = new LinkedHashMap<String, byte[]>();
+        properties.getKeys().forEach((keyId, secret) -> {
+            if (secret == null || secret.isBlank()) {
+                throw new IllegalStateException("queue.token.keys." + keyId + " must not be empty");
+            }
+            if (QueueTokenProperties.DEVELOPMENT_SECRET.equals(secret) && !properties.isAllowDevelopmentKey()) {
+                throw new IllegalStateException("queue.token.keys." + keyId + " must not use the development secret");
+            }
+            keys.put(keyId, secret.getBytes(StandardCharsets.UTF_8));
+        });
+        return new QueueTokenSigner(keys, properties.getActiveKeyId());
+    }
+}
@@ -0,0 +1,54 @@
+package com.dustin.flow.token;
+
+import com.dustin.flow.event.WaiterEvent;
+import com.dustin.flow.policy.QueuePolicyStore;
+import com.dustin.flow.service.UserQueueService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * 대기열 토큰 쿠키를 읽고 발급합니다.
+ * 대기실 페이지와 API가 같은 이름, 경로, 유효 기간으로 쿠키를 다루도록 한곳에 모읍니다.
+ */
+@Component
+@RequiredArgsConstructor
+public class QueueTokenCookies {
+
+    private final UserQueueService userQueueService;
+
+    // 대기열별 토큰 유효 기간을 결정합니다.
+    private final QueuePolicyStore queuePolicyStore;
+
+    /**
+     * 요청에 담긴 대기열 토큰을 반환합니다.
+     * @return 토큰 쿠키 값, 쿠키가 없으면 빈 문자열
+     */
+    public String read(String queue, ServerWebExchange exchange) {
+        var cookie = exchange.getRequest().getCookies().getFirst(name(queue));
+        return cookie == null ? "" : cookie.getValue();
+    }
+
+    /**
+     * 대기열별 정책의 유효 기간으로 토큰을 발급하고, 같은 유효 기간의 쿠키로 응답에 추가합니다.
+     * @return 발급한 토큰과 유효 기간(초)
+     */
+    public Mono<WaiterEvent.Admitted> issue(String queue, Long userId, ServerWebExchange exchange) {
+        return queuePolicyStore.get(queue)
+                .flatMap(policy -> userQueueService.generateToken(queue, userId, policy.tokenTtl())
+                        .doOnNext(token -> exchange.getResponse().addCookie(
+                                ResponseCookie
+                                        .from(name(queue), token)
+                                        .maxAge(policy.tokenTtl()) // 토큰 쿠키의 유효 기간을 토큰 만료 시각과 맞춥니다.
+                                        .path("/")
+                                        .build()
+                        ))
+                        .map(token -> new WaiterEvent.Admitted(token, policy.tokenTtl().toSeconds())));
+    }
+
+    private String name(String queue) {
+        return "user-queue-%s-token".formatted(queue);
+    }
+}
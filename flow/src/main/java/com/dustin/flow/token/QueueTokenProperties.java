@@ -0,0 +1,35 @@
+package com.dustin.flow.token;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 대기열 통과 토큰의 서명 설정입니다.
+ * keys에는 키 ID별 비밀 값을 등록하며, activeKeyId의 키로 서명하고 등록된 모든 키로 검증합니다.
+ * 키를 교체할 때는 새 키를 추가하고 activeKeyId를 바꾼 뒤, 기존 토큰이 만료되면 이전 키를 제거합니다.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "queue.token")
+public class QueueTokenProperties {
+
+    // local 프로필의 개발용 비밀 값. 운영 환경에서 이 값으로 서명하면 누구나 토큰을 만들 수 있습니다.
+    public static final String DEVELOPMENT_SECRET = "local-development-secret-do-not-use-in-production";
+
+    // 키 ID별 HMAC 비밀 값
+    private Map<String, String> keys = new LinkedHashMap<>();
+
+    // 새 토큰 서명에 사용할 키 ID
+    private String activeKeyId;
+
+    // 토큰 유효 기간
+    private Duration ttl = Duration.ofSeconds(300);
+
+    // 개발용 비밀 값을 허용할지 여부 (local, test 프로필에서만 사용합니다)
+    private boolean allowDevelopmentKey = false;
+}
@@ -0,0 +1,16 @@
+-- 대기열 소유권(lease)을 획득하거나 연장합니다.
+-- KEYS[1]: 소유자 키 (users:queue:%s:owner), KEYS[2]: 펜싱 토큰 키 (users:queue:%s:fence)
+-- ARGV[1]: 노드 ID, ARGV[2]: lease 유효 시간(밀리초)
+-- 반환값: 펜싱 토큰, 다른 노드가 소유 중이면 -1
+local owner = redis.call('GET', KEYS[1])
+if owner == ARGV[1] then
+    redis.call('PEXPIRE', KEYS[1], ARGV[2])
+    return tonumber(redis.call('GET', KEYS[2]) or '0')
+end
+if owner then
+    return -1
+end
+
+-- 새로 획득할 때마다 펜싱 토큰을 증가시켜, 이전 소유자의 늦은 허용 요청을 거부할 수 있게 합니다.
+redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+return redis.call('INCR', KEYS[2])
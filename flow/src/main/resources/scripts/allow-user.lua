@@ -0,0 +1,147 @@
+-- 대기열에서 최대 count명을 꺼내 진행 목록으로 옮기는 작업을 원자적으로 수행합니다.
+-- KEYS[1]: 진행 키 (users:queue:%s:proceed), KEYS[2]: 처리된 번호표 키 (users:queue:%s:served)
+-- KEYS[3]: 대기열 목록 키 (users:queue:registry), KEYS[4]: 펜싱 토큰 키 (users:queue:%s:fence)
+-- KEYS[5]: 토큰 버킷 키 (users:queue:%s:bucket), KEYS[6]: 허용 처리량 키 (users:queue:%s:throughput)
+-- KEYS[7]: 차선별 누적 허용 인원 키 (users:queue:%s:admitted, 필드는 차선 대기열 키), KEYS[8..]: 차선별 대기열 키 (차선 설정 순서)
+-- ARGV[1]: 허용할 최대 사용자 수, ARGV[2]: 진행 목록에 기록할 점수 (허용 시각, epoch seconds)
+-- ARGV[3]: 진행 목록 유효 시간(초), ARGV[4]: 동시 활성 사용자 상한 (0이면 제한 없음), ARGV[5]: 대기열 이름
+-- ARGV[6]: 펜싱 토큰 (0이면 검사하지 않음)
+-- ARGV[7]: 현재 시각(밀리초), ARGV[8]: 토큰 버킷 충전 속도 (초당 사용자 수, 0이면 버킷을 사용하지 않음), ARGV[9]: 버킷 크기
+-- ARGV[10]: 허용 처리량 이동 평균의 시간 상수(밀리초), ARGV[11]: 대기열 진행 상황 채널 (users:queue:%s:progress)
+-- ARGV[12..]: 차선별 가중치 (KEYS[8..]와 같은 순서)
+-- 반환값: 실제로 허용된 사용자 수
+
+-- 허용 처리량(초당 허용 인원)의 지수 가중 이동 평균과 분산을 갱신합니다.
+-- 호출 간격이 일정하지 않으므로 가중치(alpha)는 경과 시간으로 정하고, 초기값 0으로 인한 치우침은 누적 가중치(weight)로 보정합니다.
+-- 표본 가중치의 제곱합(w2)도 함께 기록하여, 읽는 쪽에서 분산으로부터 이동 평균 자체의 표준오차를 계산할 수 있게 합니다.
+local function recordThroughput(admitted)
+    local now = tonumber(ARGV[7])
+    local window = tonumber(ARGV[10])
+    local stats = redis.call('HMGET', KEYS[6], 'rate', 'var', 'weight', 'ts', 'w2')
+    local last = tonumber(stats[4])
+    if not last then
+        redis.call('HSET', KEYS[6], 'rate', 0, 'var', 0, 'weight', 0, 'ts', now, 'w2', 0)
+    elseif now > last then
+        local elapsed = now - last
+        local alpha = 1 - math.exp(-elapsed / window)
+        local rate = tonumber(stats[1])
+        local diff = admitted * 1000 / elapsed - rate
+        rate = rate + alpha * diff
+        local var = (1 - alpha) * (tonumber(stats[2]) + alpha * diff * diff)
+        local weight = tonumber(stats[3]) + alpha * (1 - tonumber(stats[3]))
+        local w2 = (1 - alpha) * (1 - alpha) * (tonumber(stats[5]) or 0) + alpha * alpha
+        redis.call('HSET', KEYS[6], 'rate', rate, 'var', var, 'weight', weight, 'ts', now, 'w2', w2)
+    end
+    redis.call('PEXPIRE', KEYS[6], window * 10)
+    return admitted
+end
+
+if ARGV[6] ~= '0' and redis.call('GET', KEYS[4]) ~= ARGV[6] then
+    return 0 -- 소유권을 잃은 노드의 요청은 거부합니다.
+end
+
+local laneCount = #KEYS - 7
+local sizes = {}
+local waiting = 0
+for i = 1, laneCount do
+    sizes[i] = redis.call('ZCARD', KEYS[7 + i])
+    waiting = waiting + sizes[i]
+end
+if waiting == 0 then
+    redis.call('SREM', KEYS[3], ARGV[5]) -- 비워진 대기열은 대기열 목록에서 제거합니다.
+    return 0 -- 기다리는 사용자가 없을 때는 처리량을 기록하지 않습니다.
+end
+
+local limit = math.min(tonumber(ARGV[1]), waiting)
+local maxActive = tonumber(ARGV[4])
+if maxActive > 0 then
+    -- 유효 시간이 지난 사용자를 정리한 뒤 남은 자리(headroom)만큼만 허용합니다.
+    redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', '(' .. (tonumber(ARGV[2]) - tonumber(ARGV[3])))
+    limit = math.min(limit, maxActive - redis.call('ZCARD', KEYS[1]))
+end
+
+-- 마지막 허용 이후 지난 시간만큼 버킷을 채우고, 버킷에 있는 토큰 수만큼만 허용합니다.
+local rate = tonumber(ARGV[8])
+local now = tonumber(ARGV[7])
+local tokens = 0
+if rate > 0 then
+    local burst = tonumber(ARGV[9])
+    local bucket = redis.call('HMGET', KEYS[5], 'tokens', 'ts')
+    tokens = tonumber(bucket[1]) or burst
+    local last = tonumber(bucket[2]) or now
+    tokens = math.min(burst, tokens + math.max(0, now - last) * rate / 1000)
+    limit = math.min(limit, math.floor(tokens))
+end
+if limit <= 0 then
+    return recordThroughput(0) -- 남은 자리나 토큰이 없어 허용하지 못한 것도 처리량에 반영합니다.
+end
+
+-- 허용 인원을 차선 가중치 비율로 나누고, 대기 인원이 모자란 차선의 몫은 다른 차선에 다시 나눕니다.
+local quotas = {}
+for i = 1, laneCount do
+    quotas[i] = 0
+end
+local remaining = limit
+while remaining > 0 do
+    local weightSum = 0
+    for i = 1, laneCount do
+        if quotas[i] < sizes[i] then
+            weightSum = weightSum + tonumber(ARGV[11 + i])
+        end
+    end
+    local round = remaining
+    for i = 1, laneCount do
+        if remaining > 0 and quotas[i] < sizes[i] then
+            local share = math.max(1, math.floor(round * tonumber(ARGV[11 + i]) / weightSum))
+            local grant = math.min(share, sizes[i] - quotas[i], remaining)
+            quotas[i] = quotas[i] + grant
+            remaining = remaining - grant
+        end
+    end
+end
+
+-- 각 차선에서 몫만큼 꺼내 진행 목록에 추가합니다. unpack은 Lua 스택 크기 제한이 있으므로 일정 개수씩 나누어 추가합니다.
+local chunk = 1000
+local lastTicket = 0
+for lane = 1, laneCount do
+    if quotas[lane] > 0 then
+        local popped = redis.call('ZPOPMIN', KEYS[7 + lane], quotas[lane])
+        for offset = 1, #popped, chunk * 2 do
+            local members = {}
+            for i = offset, math.min(offset + chunk * 2 - 1, #popped), 2 do
+                members[#members + 1] = ARGV[2]
+                members[#members + 1] = popped[i]
+            end
+            redis.call('ZADD', KEYS[1], unpack(members))
+        end
+        lastTicket = math.max(lastTicket, tonumber(popped[#popped]))
+        -- 대기 중인 사용자는 자신이 속한 차선의 누적 허용 인원 변화로 순위를 다시 계산합니다.
+        redis.call('HINCRBY', KEYS[7], KEYS[7 + lane], quotas[lane])
+    end
+end
+
+-- 대기 중인 사용자의 순위를 각 노드가 메모리에서 다시 계산하도록, 차선별 누적 허용 인원과 대기 인원을 발행합니다.
+-- 형식은 queue-progress.lua의 반환값을 쉼표로 이은 것과 같습니다.
+local progress = {}
+for lane = 1, laneCount do
+    progress[#progress + 1] = redis.call('HGET', KEYS[7], KEYS[7 + lane]) or '0'
+    progress[#progress + 1] = sizes[lane] - quotas[lane]
+end
+redis.call('PUBLISH', ARGV[11], table.concat(progress, ','))
+
+if waiting == limit then
+    redis.call('SREM', KEYS[3], ARGV[5]) -- 비워진 대기열은 대기열 목록에서 제거합니다.
+end
+
+if rate > 0 then
+    -- 허용한 만큼 토큰을 차감합니다. 버킷이 가득 찰 시간이 지나면 키가 만료되어 가득 찬 버킷과 같아집니다.
+    redis.call('HSET', KEYS[5], 'tokens', tokens - limit, 'ts', now)
+    redis.call('PEXPIRE', KEYS[5], math.ceil(tonumber(ARGV[9]) * 1000 / rate) + 1000)
+end
+
+-- 가장 큰 번호표를 처리된 번호표로 기록합니다.
+local served = tonumber(redis.call('GET', KEYS[2]) or '0')
+if lastTicket > served then
+    redis.call('SET', KEYS[2], lastTicket)
+end
+return recordThroughput(limit)
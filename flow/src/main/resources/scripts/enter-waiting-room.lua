@@ -0,0 +1,42 @@
+-- 대기실에 들어온 사용자의 상태 확인과 등록을 한 번의 호출로 원자적으로 수행합니다.
+-- 이미 허용된 사용자인지, 대기 중인 사용자인지 확인하고, 둘 다 아니면 지정한 차선(lane)에 등록합니다.
+-- KEYS[1]: 진행 키 (users:queue:%s:proceed), KEYS[2]: 대기열 목록 키 (users:queue:registry)
+-- KEYS[3]: 번호표 카운터 키 (users:queue:%s:ticket), KEYS[4..]: 차선별 대기열 키 (차선 설정 순서)
+-- ARGV[1]: 사용자 ID, ARGV[2]: 점수 (번호표, 0이면 실제로 등록할 때 카운터에서 하나를 발급), ARGV[3]: 대기열 이름
+-- ARGV[4]: 등록할 차선 번호 (1부터), ARGV[5..]: 차선별 가중치 (KEYS[4..]와 같은 순서)
+-- 반환값: {상태, 순위}. 상태는 0: 허용됨(순위 0), 1: 새로 등록됨, 2: 이미 대기 중. 순위는 차선 가중치를 반영한 1부터 시작하는 순위입니다.
+local ADMITTED, REGISTERED, WAITING = 0, 1, 2
+local laneCount = #KEYS - 3
+
+-- 차선 안의 위치가 position인 사용자가 허용되기 전까지 다른 차선에서 가중치 비율만큼 먼저 허용되는 인원을 더합니다.
+-- (get-rank.lua와 같은 계산입니다)
+local function rankOf(lane)
+    local position = redis.call('ZRANK', KEYS[lane + 3], ARGV[1]) + 1
+    local weight = tonumber(ARGV[4 + lane])
+    local rank = position
+    for i = 1, laneCount do
+        if i ~= lane then
+            rank = rank + math.min(redis.call('ZCARD', KEYS[i + 3]), math.floor(position * tonumber(ARGV[4 + i]) / weight))
+        end
+    end
+    return rank
+end
+
+if redis.call('ZSCORE', KEYS[1], ARGV[1]) then
+    return { ADMITTED, 0 }
+end
+
+for i = 1, laneCount do
+    if redis.call('ZSCORE', KEYS[i + 3], ARGV[1]) then
+        return { WAITING, rankOf(i) }
+    end
+end
+
+local lane = tonumber(ARGV[4])
+local ticket = ARGV[2]
+if ticket == '0' then
+    ticket = redis.call('INCR', KEYS[3]) -- 추정 순위를 쓰는 대기열은 실제 등록에만 빈 번호 없이 번호표를 발급합니다.
+end
+redis.call('ZADD', KEYS[lane + 3], ticket, ARGV[1])
+redis.call('SADD', KEYS[2], ARGV[3]) -- 스케줄러가 키 스캔 없이 대기열을 찾을 수 있도록 등록합니다.
+return { REGISTERED, rankOf(lane) }
@@ -0,0 +1,15 @@
+-- 번호표와 처리된 번호표의 차이로 순위를 추정합니다. ZRANK 없이 O(1) 명령만 사용합니다.
+-- KEYS[1]: 대기열 키 (users:queue:%s:wait), KEYS[2]: 처리된 번호표 키 (users:queue:%s:served)
+-- ARGV[1]: 사용자 ID
+-- 반환값: 1부터 시작하는 추정 순위, 대기열에 없으면 -1
+local ticket = redis.call('ZSCORE', KEYS[1], ARGV[1])
+if not ticket then
+    return -1
+end
+
+local served = tonumber(redis.call('GET', KEYS[2]) or '0')
+local rank = tonumber(ticket) - served
+if rank < 1 then
+    return 1
+end
+return rank
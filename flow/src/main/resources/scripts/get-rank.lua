@@ -0,0 +1,26 @@
+-- 사용자가 속한 차선(lane)을 찾아 차선 가중치를 반영한 순위를 반환합니다.
+-- 차선 수만큼의 ZSCORE/ZCARD와 한 번의 ZRANK만 사용하므로 비용은 단일 대기열의 ZRANK와 같은 수준입니다.
+-- KEYS[1..]: 차선별 대기열 키 (차선 설정 순서)
+-- ARGV[1]: 사용자 ID, ARGV[2..]: 차선별 가중치 (KEYS와 같은 순서)
+-- 반환값: 1부터 시작하는 순위, 대기열에 없으면 -1
+local lane
+for i = 1, #KEYS do
+    if redis.call('ZSCORE', KEYS[i], ARGV[1]) then
+        lane = i
+        break
+    end
+end
+if not lane then
+    return -1
+end
+
+-- 차선 안의 위치가 position인 사용자가 허용되기 전까지 다른 차선에서 가중치 비율만큼 먼저 허용되는 인원을 더합니다.
+local position = redis.call('ZRANK', KEYS[lane], ARGV[1]) + 1
+local weight = tonumber(ARGV[1 + lane])
+local rank = position
+for i = 1, #KEYS do
+    if i ~= lane then
+        rank = rank + math.min(redis.call('ZCARD', KEYS[i]), math.floor(position * tonumber(ARGV[1 + i]) / weight))
+    end
+end
+return rank
@@ -0,0 +1,9 @@
+-- 대기열의 차선별 누적 허용 인원과 대기 인원을 한 번에 읽습니다.
+-- KEYS[1]: 차선별 누적 허용 인원 키 (users:queue:%s:admitted), KEYS[2..]: 차선별 대기열 키 (차선 설정 순서)
+-- 반환값: {차선1 누적 허용 인원, 차선1 대기 인원, 차선2 누적 허용 인원, 차선2 대기 인원, ...}
+local progress = {}
+for i = 2, #KEYS do
+    progress[#progress + 1] = tonumber(redis.call('HGET', KEYS[1], KEYS[i]) or '0')
+    progress[#progress + 1] = redis.call('ZCARD', KEYS[i])
+end
+return progress
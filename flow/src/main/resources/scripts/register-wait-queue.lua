@@ -0,0 +1,36 @@
+-- 대기열의 한 차선(lane)에 사용자를 추가하고 차선 가중치를 반영한 순위를 한 번의 호출로 반환합니다.
+-- KEYS[1]: 대기열 목록 키 (users:queue:registry), KEYS[2]: 번호표 카운터 키 (users:queue:%s:ticket)
+-- KEYS[3..]: 차선별 대기열 키 (차선 설정 순서)
+-- ARGV[1]: 사용자 ID, ARGV[2]: 점수 (번호표, 0이면 실제로 등록할 때 카운터에서 하나를 발급), ARGV[3]: 대기열 이름
+-- ARGV[4]: 등록할 차선 번호 (1부터), ARGV[5..]: 차선별 가중치 (KEYS[3..]와 같은 순서)
+-- 반환값: {등록 여부, 순위}. 등록 여부는 1: 새로 등록됨, 0: 이미 어느 차선에든 있음(순위는 그 차선 기준). 순위는 1부터 시작합니다.
+local laneCount = #KEYS - 2
+
+-- 차선 안의 위치가 position인 사용자가 허용되기 전까지 다른 차선에서 가중치 비율만큼 먼저 허용되는 인원을 더합니다.
+-- (get-rank.lua와 같은 계산입니다)
+local function rankOf(lane)
+    local position = redis.call('ZRANK', KEYS[lane + 2], ARGV[1]) + 1
+    local weight = tonumber(ARGV[4 + lane])
+    local rank = position
+    for i = 1, laneCount do
+        if i ~= lane then
+            rank = rank + math.min(redis.call('ZCARD', KEYS[i + 2]), math.floor(position * tonumber(ARGV[4 + i]) / weight))
+        end
+    end
+    return rank
+end
+
+for i = 1, laneCount do
+    if redis.call('ZSCORE', KEYS[i + 2], ARGV[1]) then
+        return { 0, rankOf(i) } -- 어느 차선에든 이미 있으면 중복 등록입니다.
+    end
+end
+
+local lane = tonumber(ARGV[4])
+local ticket = ARGV[2]
+if ticket == '0' then
+    ticket = redis.call('INCR', KEYS[2]) -- 추정 순위를 쓰는 대기열은 실제 등록에만 빈 번호 없이 번호표를 발급합니다.
+end
+redis.call('ZADD', KEYS[lane + 2], ticket, ARGV[1])
+redis.call('SADD', KEYS[1], ARGV[3]) -- 스케줄러가 키 스캔 없이 대기열을 찾을 수 있도록 등록합니다.
+return { 1, rankOf(lane) }
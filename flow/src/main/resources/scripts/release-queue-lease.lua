@@ -0,0 +1,8 @@
+-- 자신이 소유한 대기열 소유권(lease)을 반납합니다.
+-- KEYS[1]: 소유자 키 (users:queue:%s:owner)
+-- ARGV[1]: 노드 ID
+-- 반환값: 반납했으면 1, 소유자가 아니면 0
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    return redis.call('DEL', KEYS[1])
+end
+return 0
@@ -0,0 +1,12 @@
+-- 대기 중인 사용자의 차선, 차선 안의 위치, 그 시점의 차선 누적 허용 인원을 원자적으로 읽습니다.
+-- 이후에는 누적 허용 인원의 변화만으로 위치를 다시 계산할 수 있습니다.
+-- KEYS[1]: 차선별 누적 허용 인원 키 (users:queue:%s:admitted), KEYS[2..]: 차선별 대기열 키 (차선 설정 순서)
+-- ARGV[1]: 사용자 ID
+-- 반환값: {차선 번호(1부터), 1부터 시작하는 차선 안의 위치, 차선 누적 허용 인원}, 대기열에 없으면 빈 목록
+for i = 2, #KEYS do
+    local position = redis.call('ZRANK', KEYS[i], ARGV[1])
+    if position then
+        return { i - 1, position + 1, tonumber(redis.call('HGET', KEYS[1], KEYS[i]) or '0') }
+    end
+end
+return {}
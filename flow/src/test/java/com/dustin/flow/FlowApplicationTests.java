@@ -2,8 +2,12 @@ package com.dustin.flow;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
 
 @SpringBootTest
+@Import(EmbeddedRedis.class)
+@ActiveProfiles("test")
 class FlowApplicationTests {
 
 	@Test
@@ -0,0 +1,88 @@
+package com.dustin.flow.admission;
+
+import com.dustin.flow.EmbeddedRedis;
+import com.dustin.flow.service.UserQueueService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 관련 없는 키 1,000,000개가 있는 임베디드 Redis에서 허용 작업(대기열 탐색 + 허용)의 지연 시간을
+ * 키 스캔 방식과 대기열 목록 방식으로 비교합니다. ./gradlew benchmark 로 실행합니다.
+ */
+@Tag("benchmark")
+@SpringBootTest
+@Import(EmbeddedRedis.class)
+@ActiveProfiles("test")
+class AdmissionSchedulerBenchmark {
+    private static final int UNRELATED_KEYS = 1_000_000;
+    private static final int QUEUES = 20;
+    private static final int TICKS = 10;
+
+    // 관련 없는 키를 서버 측에서 한 번에 만들어 네트워크 왕복을 줄입니다.
+    private static final RedisScript<Long> SEED_SCRIPT = RedisScript.of("""
+            for i = tonumber(ARGV[1]), tonumber(ARGV[2]) do
+                redis.call('SET', 'unrelated:' .. i, '1')
+            end
+            return 0
+            """, Long.class);
+
+    @Autowired
+    private UserQueueService userQueueService;
+
+    @Autowired
+    private AdmissionScheduler admissionScheduler;
+
+    @Autowired
+    private ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+
+    @BeforeEach
+    public void beforeEach() {
+        reactiveRedisTemplate.getConnectionFactory().getReactiveConnection().serverCommands().flushAll().block();
+        Flux.range(0, UNRELATED_KEYS / 100_000)
+                .concatMap(batch -> reactiveRedisTemplate.execute(SEED_SCRIPT, List.of(),
+                        List.of(String.valueOf(batch * 100_000 + 1), String.valueOf((batch + 1) * 100_000))))
+                .blockLast();
+    }
+
+    @Test
+    void tickLatency() {
+        var scan = measure("scan", () -> reactiveRedisTemplate.scan(ScanOptions.scanOptions()
+                        .match("users:queue:*:wait")
+                        .count(100)
+                        .build())
+                .map(key -> key.split(":")[2])
+                .flatMap(queue -> userQueueService.allowUser(queue, 1L))
+                .then().block());
+        var registry = measure("registry", () -> admissionScheduler.admitAll().then().block());
+        System.out.printf("tick speedup with %d unrelated keys: %.1fx%n", UNRELATED_KEYS, scan.toNanos() / (double) registry.toNanos());
+    }
+
+    private Duration measure(String name, Supplier<Void> tick) {
+        var total = Duration.ZERO;
+        for (long userId = 0; userId < TICKS; userId++) {
+            var user = userId;
+            Flux.range(0, QUEUES)
+                    .flatMap(queue -> userQueueService.registerWaitQueue("bench-" + queue, user))
+                    .blockLast(); // 매 주기 허용할 사용자를 채웁니다.
+            var started = System.nanoTime();
+            tick.get();
+            total = total.plusNanos(System.nanoTime() - started);
+        }
+        var average = total.dividedBy(TICKS);
+        System.out.printf("%-8s average tick latency: %.2f ms%n", name, average.toNanos() / 1e6);
+        return average;
+    }
+}
@@ -0,0 +1,236 @@
+package com.dustin.flow.admission;
+
+import com.dustin.flow.EmbeddedRedis;
+import com.dustin.flow.cluster.ClusterProperties;
+import com.dustin.flow.cluster.QueueOwnership;
+import com.dustin.flow.dto.QueuePolicyRequest;
+import com.dustin.flow.policy.QueuePolicyStore;
+import com.dustin.flow.service.AdmissionLimit;
+import com.dustin.flow.service.UserQueueService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.util.function.Tuples;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@Import(EmbeddedRedis.class)
+@ActiveProfiles("test")
+class AdmissionSchedulerTest {
+    @Autowired
+    private ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+
+    @Autowired
+    private UserQueueService userQueueService;
+
+    @Autowired
+    private QueuePolicyStore queuePolicyStore;
+
+    @BeforeEach
+    public void beforeEach() {
+        reactiveRedisTemplate.getConnectionFactory().getReactiveConnection().serverCommands().flushAll().block();
+    }
+
+    @Test
+    void admitAll() {
+        var scheduler = scheduler(new AdmissionProperties());
+
+        StepVerifier.create(userQueueService.registerWaitQueue("default", 100L)
+                        .thenMany(scheduler.admitAll()))
+                .expectNext(Tuples.of("default", 1L))
+                .verifyComplete();
+    }
+
+    @Test
+    void tickIsScheduledFromTickInterval() {
+        var properties = new AdmissionProperties();
+        properties.setTickInterval(Duration.ofSeconds(1));
+        var registrar = new ScheduledTaskRegistrar();
+
+        scheduler(properties).configureTasks(registrar);
+
+        assertEquals(1, registrar.getFixedDelayTaskList().size());
+        assertEquals(1000L, registrar.getFixedDelayTaskList().get(0).getInterval());
+    }
+
+    @Test
+    void queuesOverTickBudgetAreCarriedOver() {
+        var properties = new AdmissionProperties();
+        properties.setTickBudget(Duration.ZERO);
+        var scheduler = scheduler(properties);
+
+        // 시간 예산을 모두 사용했으므로 이번 주기에는 허용하지 않고 다음 주기로 넘깁니다.
+        StepVerifier.create(userQueueService.registerWaitQueue("default", 100L)
+                        .thenMany(scheduler.admitAll()))
+                .verifyComplete();
+
+        properties.setTickBudget(Duration.ofSeconds(1));
+        StepVerifier.create(scheduler.admitAll())
+                .expectNext(Tuples.of("default", 1L))
+                .verifyComplete();
+    }
+
+    @Test
+    void pausedQueueIsNotAdmitted() {
+        var scheduler = scheduler(new AdmissionProperties());
+
+        StepVerifier.create(userQueueService.registerWaitQueue("default", 100L)
+                        .then(queuePolicyStore.update("default", new QueuePolicyRequest(null, null, null, null, null, true)))
+                        .thenMany(scheduler.admitAll()))
+                .verifyComplete();
+
+        // 정책을 바꾸면 다음 주기부터 적용됩니다.
+        StepVerifier.create(queuePolicyStore.update("default", new QueuePolicyRequest(null, null, null, null, null, false))
+                        .thenMany(scheduler.admitAll()))
+                .expectNext(Tuples.of("default", 1L))
+                .verifyComplete();
+    }
+
+    @Test
+    void activeUsersExpireAfterQueueTokenTtl() throws InterruptedException {
+        var scheduler = scheduler(new AdmissionProperties());
+
+        StepVerifier.create(queuePolicyStore.update("default", new QueuePolicyRequest(null, null, 1L, 1L, null, null))
+                        .then(userQueueService.registerWaitQueue("default", 100L))
+                        .then(userQueueService.registerWaitQueue("default", 101L))
+                        .thenMany(scheduler.admitAll()))
+                .expectNext(Tuples.of("default", 1L))
+                .verifyComplete();
+
+        // 먼저 허용된 사용자가 활성 상태인 동안에는 동시 활성 사용자 상한에 걸립니다.
+        StepVerifier.create(scheduler.admitAll())
+                .expectNext(Tuples.of("default", 0L))
+                .verifyComplete();
+
+        // 대기열의 토큰 유효 기간(1초)이 지나면 기본 유효 기간과 관계없이 활성 사용자에서 제외되어 자리가 납니다.
+        Thread.sleep(2_100);
+        StepVerifier.create(scheduler.admitAll())
+                .expectNext(Tuples.of("default", 1L))
+                .verifyComplete();
+    }
+
+    @Test
+    void hungTickIsAbandonedAfterBudget() throws InterruptedException {
+        var properties = new AdmissionProperties();
+        properties.setTickBudget(Duration.ofMillis(100));
+        var meterRegistry = new SimpleMeterRegistry();
+        // 허용 스크립트가 응답하지 않는 상황을 흉내 냅니다.
+        var hungQueueService = mock(UserQueueService.class);
+        when(hungQueueService.getActiveQueues()).thenReturn(Flux.just("default"));
+        when(hungQueueService.allowUser(anyString(), any(AdmissionLimit.class))).thenReturn(Mono.never());
+        var scheduler = new AdmissionScheduler(hungQueueService, properties, queueOwnership(), queuePolicyStore, meterRegistry);
+        ReflectionTestUtils.setField(scheduler, "scheduling", true);
+
+        scheduler.scheduleAllowUser();
+        scheduler.scheduleAllowUser();
+        assertEquals(1.0, meterRegistry.counter("queue.admission.tick.skipped").count());
+
+        // 시간 예산이 지나면 주기가 중단되어 다음 주기를 실행할 수 있습니다.
+        var ticking = (AtomicBoolean) ReflectionTestUtils.getField(scheduler, "ticking");
+        var deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (ticking.get() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1.0, meterRegistry.counter("queue.admission.tick.timeout").count());
+        scheduler.scheduleAllowUser();
+        assertEquals(1.0, meterRegistry.counter("queue.admission.tick.skipped").count());
+    }
+
+    @Test
+    void queuesBehindHungQueueAreCarriedOver() {
+        var properties = new AdmissionProperties();
+        properties.setTickBudget(Duration.ofMillis(200));
+        properties.setConcurrency(1);
+        // 처음 시작한 대기열의 허용 스크립트만 응답하지 않습니다.
+        var hungQueueService = mock(UserQueueService.class);
+        when(hungQueueService.getActiveQueues()).thenReturn(Flux.just("a", "b", "c"));
+        when(hungQueueService.allowUser(anyString(), any(AdmissionLimit.class)))
+                .thenReturn(Mono.never())
+                .thenReturn(Mono.just(1L));
+        var scheduler = new AdmissionScheduler(hungQueueService, properties, queueOwnership(), queuePolicyStore, new SimpleMeterRegistry());
+
+        StepVerifier.create(scheduler.admitAll())
+                .verifyComplete();
+
+        // 응답하지 않은 대기열과 그 뒤에서 시작하지 못한 대기열 모두 다음 주기에 먼저 처리됩니다.
+        assertEquals(Set.of("a", "b", "c"), ReflectionTestUtils.getField(scheduler, "carriedOver"));
+        StepVerifier.create(scheduler.admitAll())
+                .expectNextCount(3)
+                .verifyComplete();
+    }
+
+    @Test
+    void fairShareIsKeptWhenTickAdmitsNobody() {
+        var properties = new AdmissionProperties();
+        properties.setMode(AdmissionProperties.Mode.FAIR);
+        properties.setTickBudget(Duration.ofMillis(200));
+        var hungQueueService = mock(UserQueueService.class);
+        when(hungQueueService.getActiveQueues()).thenReturn(Flux.just("a", "b"));
+        when(hungQueueService.getWaitingCount(anyString())).thenReturn(Mono.just(1_000L));
+        when(hungQueueService.allowUser(anyString(), any(AdmissionLimit.class))).thenReturn(Mono.never());
+        var scheduler = new AdmissionScheduler(hungQueueService, properties, queueOwnership(), queuePolicyStore, new SimpleMeterRegistry());
+        var deficitRoundRobin = (DeficitRoundRobin) ReflectionTestUtils.getField(scheduler, "deficitRoundRobin");
+        var before = deficitRoundRobin.snapshot();
+
+        StepVerifier.create(scheduler.admitAll())
+                .verifyComplete();
+
+        // 시간 초과로 아무도 허용하지 못했으므로 할당받은 몫은 적립되거나 사라지지 않습니다.
+        assertEquals(before, deficitRoundRobin.snapshot());
+    }
+
+    @Test
+    void fairBudgetFollowsOwnedQueueWeight() {
+        var properties = new AdmissionProperties();
+        properties.setMode(AdmissionProperties.Mode.FAIR);
+        properties.setGlobalRate(100);
+        properties.setTickInterval(Duration.ofSeconds(1));
+        var owners = new QueueOwnership[]{queueOwnership("node-1"), queueOwnership("node-2")};
+        for (var ownership : new QueueOwnership[]{owners[0], owners[1], owners[0]}) {
+            ReflectionTestUtils.<Mono<Void>>invokeMethod(ownership, "heartbeatNow").block();
+        }
+        Flux.range(1, 150).concatMap(userId -> userQueueService.registerWaitQueue("solo", (long) userId)).blockLast();
+
+        var admitted = 0L;
+        for (var ownership : owners) {
+            var scheduler = new AdmissionScheduler(userQueueService, properties, ownership, queuePolicyStore, new SimpleMeterRegistry());
+            admitted += scheduler.admitAll().map(result -> result.getT2()).reduce(0L, Long::sum).block();
+        }
+
+        // 대기열을 소유하지 않은 노드는 몫을 받지 않으므로, 대기열 하나를 소유한 노드가 globalRate 전체를 허용합니다.
+        assertEquals(100L, admitted);
+    }
+
+    private AdmissionScheduler scheduler(AdmissionProperties properties) {
+        return new AdmissionScheduler(userQueueService, properties, queueOwnership(), queuePolicyStore, new SimpleMeterRegistry());
+    }
+
+    private QueueOwnership queueOwnership() {
+        return queueOwnership("node-1");
+    }
+
+    private QueueOwnership queueOwnership(String nodeId) {
+        var clusterProperties = new ClusterProperties();
+        clusterProperties.setNodeId(nodeId);
+        return new QueueOwnership(reactiveRedisTemplate, clusterProperties);
+    }
+}
@@ -0,0 +1,85 @@
+package com.dustin.flow.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeficitRoundRobinTest {
+
+    @Test
+    void allocateByWeight() {
+        var drr = new DeficitRoundRobin();
+        var allocations = drr.allocate(Map.of(
+                "vip", new DeficitRoundRobin.Demand(3, 1_000),
+                "general", new DeficitRoundRobin.Demand(1, 1_000)), 100);
+
+        assertEquals(75L, allocations.get("vip"));
+        assertEquals(25L, allocations.get("general"));
+    }
+
+    @Test
+    void unusedShareGoesToOtherQueues() {
+        var drr = new DeficitRoundRobin();
+        var allocations = drr.allocate(Map.of(
+                "giant", new DeficitRoundRobin.Demand(1, 1_000_000),
+                "tiny", new DeficitRoundRobin.Demand(1, 3)), 100);
+
+        assertEquals(3L, allocations.get("tiny"));
+        assertEquals(97L, allocations.get("giant"));
+    }
+
+    @Test
+    void manyQueuesShareBudgetOverTicks() {
+        var drr = new DeficitRoundRobin();
+        var demands = new HashMap<String, DeficitRoundRobin.Demand>();
+        demands.put("giant", new DeficitRoundRobin.Demand(1, 1_000_000));
+        for (int i = 0; i < 5_000; i++) {
+            demands.put("tiny-" + i, new DeficitRoundRobin.Demand(1, 1_000));
+        }
+
+        // 예산이 대기열 수보다 작아도, 여러 주기에 걸쳐 모든 대기열이 차례로 몫을 받습니다.
+        var total = new HashMap<String, Long>();
+        for (int tick = 0; tick < 50; tick++) {
+            var allocations = drr.allocate(demands, 1_000);
+            assertEquals(1_000L, allocations.values().stream().mapToLong(Long::longValue).sum());
+            allocations.forEach((queue, allocated) -> total.merge(queue, allocated, Long::sum));
+        }
+        assertEquals(demands.size(), total.size());
+        assertTrue(total.values().stream().allMatch(allocated -> allocated >= 9 && allocated <= 11), total.toString());
+    }
+
+    @Test
+    void refundedShareIsRepaidNextTick() {
+        var drr = new DeficitRoundRobin();
+        var demands = Map.of(
+                "a", new DeficitRoundRobin.Demand(1, 1_000),
+                "b", new DeficitRoundRobin.Demand(1, 1_000));
+        var first = drr.allocate(demands, 100);
+        assertEquals(50L, first.get("a"));
+
+        // 시간 예산을 넘겨 a의 허용을 시도하지 못했습니다.
+        drr.refund("a", first.get("a"));
+
+        assertEquals(100L, drr.allocate(demands, 100).get("a"));
+    }
+
+    @Test
+    void restoreUndoesAllocation() {
+        var drr = new DeficitRoundRobin();
+        var demands = Map.of(
+                "a", new DeficitRoundRobin.Demand(1, 1_000),
+                "b", new DeficitRoundRobin.Demand(2, 1_000));
+        var snapshot = drr.snapshot();
+        var first = drr.allocate(demands, 7);
+
+        // 아무도 허용하지 못한 주기는 없었던 것으로 되돌립니다.
+        drr.restore(snapshot);
+
+        assertEquals(snapshot, drr.snapshot());
+        assertEquals(first, drr.allocate(demands, 7));
+    }
+}
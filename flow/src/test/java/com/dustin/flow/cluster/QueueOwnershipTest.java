@@ -0,0 +1,95 @@
+package com.dustin.flow.cluster;
+
+import com.dustin.flow.EmbeddedRedis;
+import com.dustin.flow.service.AdmissionLimit;
+import com.dustin.flow.service.UserQueueService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Import(EmbeddedRedis.class)
+@ActiveProfiles("test")
+class QueueOwnershipTest {
+    @Autowired
+    private ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+
+    @Autowired
+    private UserQueueService userQueueService;
+
+    @BeforeEach
+    public void beforeEach() {
+        reactiveRedisTemplate.getConnectionFactory().getReactiveConnection().serverCommands().flushAll().block();
+    }
+
+    @Test
+    void onlyOneNodeOwnsQueue() {
+        var first = ownership("node-1");
+        var second = ownership("node-2");
+
+        StepVerifier.create(first.claim(Flux.just("default")).map(QueueOwnership.QueueLease::fencingToken))
+                .expectNext(1L)
+                .verifyComplete();
+
+        // 두 번째 노드는 담당 여부와 관계없이, 첫 번째 노드의 lease가 유효한 동안 소유권을 얻지 못합니다.
+        StepVerifier.create(second.claim(Flux.just("default")))
+                .verifyComplete();
+    }
+
+    @Test
+    void queuesAreSpreadAcrossNodes() {
+        var first = ownership("node-1");
+        var second = ownership("node-2");
+        first.heartbeatNow().block();
+        second.heartbeatNow().block();
+        first.heartbeatNow().block(); // 두 번째 노드를 살아 있는 노드로 인식
+
+        var assigned = Flux.range(0, 1000).map(i -> "queue-" + i).filter(first::isAssigned).count().block();
+        // 두 노드 모두 heartbeat를 남긴 뒤에는 대기열이 대략 절반씩 나뉩니다.
+        assertTrue(assigned > 400 && assigned < 600, "assigned=" + assigned);
+    }
+
+    @Test
+    void claimsManyQueuesConcurrently() {
+        var first = ownership("node-1");
+        var queues = Flux.range(0, 200).map(i -> "queue-" + i);
+
+        // 한 노드만 살아 있으면 모든 대기열의 소유권을 얻고, 각 대기열의 첫 lease는 펜싱 토큰 1을 받습니다.
+        StepVerifier.create(first.claim(queues).map(QueueOwnership.QueueLease::fencingToken).distinct())
+                .expectNext(1L)
+                .verifyComplete();
+        StepVerifier.create(first.claim(queues).count())
+                .expectNext(200L)
+                .verifyComplete();
+    }
+
+    @Test
+    void staleOwnerCannotAdmit() {
+        var first = ownership("node-1");
+        var lease = userQueueService.registerWaitQueue("default", 100L)
+                .thenMany(first.claim(Flux.just("default")))
+                .blockLast();
+
+        // lease가 만료되어 다른 노드가 넘겨받으면 펜싱 토큰이 증가합니다.
+        reactiveRedisTemplate.delete("users:queue:default:owner").block();
+        reactiveRedisTemplate.opsForValue().increment("users:queue:default:fence").block();
+
+        StepVerifier.create(userQueueService.allowUser("default", AdmissionLimit.of(10).withFencingToken(lease.fencingToken())))
+                .expectNext(0L)
+                .verifyComplete();
+    }
+
+    private QueueOwnership ownership(String nodeId) {
+        var properties = new ClusterProperties();
+        properties.setNodeId(nodeId);
+        return new QueueOwnership(reactiveRedisTemplate, properties);
+    }
+}
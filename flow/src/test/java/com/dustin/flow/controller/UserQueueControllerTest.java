@@ -0,0 +1,66 @@
+package com.dustin.flow.controller;
+
+import com.dustin.flow.EmbeddedRedis;
+import com.dustin.flow.token.LanePasses;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Duration;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+@Import(EmbeddedRedis.class)
+@ActiveProfiles("test")
+class UserQueueControllerTest {
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private LanePasses lanePasses;
+
+    @Autowired
+    private ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+
+    @BeforeEach
+    public void beforeEach() {
+        reactiveRedisTemplate.getConnectionFactory().getReactiveConnection().serverCommands().flushAll().block();
+    }
+
+    @Test
+    void clientChosenPriorityLaneIsRejected() {
+        webTestClient.post().uri("/api/v1/queue?user_id=100&lane=vip")
+                .exchange()
+                .expectStatus().isForbidden()
+                .expectBody().jsonPath("$.code").isEqualTo("UQ-0004");
+
+        // 다른 사용자나 다른 차선에 발급된 통과증으로도 등록할 수 없습니다.
+        var otherUserPass = lanePasses.issue("default", "vip", 101L, Duration.ofMinutes(1));
+        webTestClient.post().uri("/api/v1/queue?user_id=100&lane=vip&lane_pass={pass}", otherUserPass)
+                .exchange()
+                .expectStatus().isForbidden();
+        var otherLanePass = lanePasses.issue("default", "returning", 100L, Duration.ofMinutes(1));
+        webTestClient.post().uri("/api/v1/queue?user_id=100&lane=vip&lane_pass={pass}", otherLanePass)
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    void priorityLaneRequiresLanePass() {
+        var pass = lanePasses.issue("default", "vip", 100L, Duration.ofMinutes(1));
+        webTestClient.post().uri("/api/v1/queue?user_id=100&lane=vip&lane_pass={pass}", pass)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.rank").isEqualTo(1);
+
+        webTestClient.post().uri("/api/v1/queue?user_id=101")
+                .exchange()
+                .expectStatus().isOk();
+    }
+}
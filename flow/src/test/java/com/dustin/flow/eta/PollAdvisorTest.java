@@ -0,0 +1,38 @@
+package com.dustin.flow.eta;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PollAdvisorTest {
+
+    @Test
+    void intervalFollowsEstimate() {
+        var advisor = new PollAdvisor(properties(0));
+        assertEquals(8_000, advisor.nextPollAfterMillis(new WaitEstimate(100L, 80L, 120L)));
+        assertEquals(2_000, advisor.nextPollAfterMillis(new WaitEstimate(1L, 1L, 1L)));
+        // 간격에 상한이 없으므로 뒤쪽 사용자는 예상 대기 시간에 비례해 드물게 조회합니다.
+        assertEquals(9_000_000, advisor.nextPollAfterMillis(new WaitEstimate(100_000L, 90_000L, null)));
+        assertEquals(3_000, advisor.nextPollAfterMillis(WaitEstimate.UNKNOWN));
+    }
+
+    @Test
+    void jitterSpreadsPolls() {
+        var advisor = new PollAdvisor(properties(0.2));
+        var first = advisor.nextPollAfterMillis(new WaitEstimate(100L, 80L, 120L));
+        var differs = false;
+        for (int i = 0; i < 100; i++) {
+            var next = advisor.nextPollAfterMillis(new WaitEstimate(100L, 80L, 120L));
+            assertTrue(next >= 6_400 && next <= 9_600, "next=" + next);
+            differs |= next != first;
+        }
+        assertTrue(differs);
+    }
+
+    private PollProperties properties(double jitter) {
+        var properties = new PollProperties();
+        properties.setJitter(jitter);
+        return properties;
+    }
+}
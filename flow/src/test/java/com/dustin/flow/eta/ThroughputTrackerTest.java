@@ -0,0 +1,63 @@
+package com.dustin.flow.eta;
+
+import com.dustin.flow.EmbeddedRedis;
+import com.dustin.flow.service.UserQueueService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Map;
+
+@SpringBootTest
+@Import(EmbeddedRedis.class)
+@ActiveProfiles("test")
+class ThroughputTrackerTest {
+    @Autowired
+    private ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+
+    @Autowired
+    private UserQueueService userQueueService;
+
+    @Autowired
+    private ThroughputTracker throughputTracker;
+
+    @BeforeEach
+    public void beforeEach() {
+        reactiveRedisTemplate.getConnectionFactory().getReactiveConnection().serverCommands().flushAll().block();
+    }
+
+    @Test
+    void unknownBeforeAdmission() {
+        StepVerifier.create(throughputTracker.estimate("not-admitted", 10))
+                .expectNext(WaitEstimate.UNKNOWN)
+                .verifyComplete();
+    }
+
+    @Test
+    void admissionsAreRecorded() {
+        StepVerifier.create(Flux.range(100, 20).concatMap(userId -> userQueueService.registerWaitQueue("measured", userId.longValue()))
+                        .then(userQueueService.allowUser("measured", 5L))
+                        .then(userQueueService.allowUser("measured", 5L).delaySubscription(Duration.ofMillis(100)))
+                        .then(throughputTracker.get("measured")))
+                .expectNextMatches(throughput -> throughput.rate() > 0)
+                .verifyComplete();
+    }
+
+    @Test
+    void bandUsesStandardErrorOfMovingAverage() {
+        // 순간 처리량의 표준편차는 2이지만, 표본 가중치 제곱합이 0.01이면 이동 평균의 표준오차는 0.2입니다.
+        var stats = Map.of("rate", "10", "var", "4", "weight", "1", "w2", "0.01", "ts", String.valueOf(System.currentTimeMillis()));
+
+        StepVerifier.create(reactiveRedisTemplate.<String, String>opsForHash().putAll(throughputTracker.throughputKey("steady"), stats)
+                        .then(throughputTracker.get("steady")))
+                .expectNextMatches(throughput -> Math.abs(throughput.stddev() - 0.2) < 1e-9 && throughput.rate() > 9.9)
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,24 @@
+package com.dustin.flow.eta;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WaitEstimateTest {
+
+    @Test
+    void estimateWithBand() {
+        assertEquals(new WaitEstimate(10L, 7L, 20L), WaitEstimate.of(100, new Throughput(10, 2.5), 2));
+    }
+
+    @Test
+    void highIsUnknownWhenThroughputMayStop() {
+        assertEquals(new WaitEstimate(10L, 5L, null), WaitEstimate.of(100, new Throughput(10, 5), 2));
+    }
+
+    @Test
+    void unknownWithoutThroughput() {
+        assertEquals(WaitEstimate.UNKNOWN, WaitEstimate.of(100, Throughput.UNKNOWN, 2));
+        assertEquals(WaitEstimate.UNKNOWN, WaitEstimate.of(-1, new Throughput(10, 0), 2));
+    }
+}
@@ -0,0 +1,111 @@
+package com.dustin.flow.event;
+
+import com.dustin.flow.EmbeddedRedis;
+import com.dustin.flow.service.UserQueueService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+@SpringBootTest
+@Import(EmbeddedRedis.class)
+@ActiveProfiles("test")
+class WaiterEventServiceTest {
+    @Autowired
+    private ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+
+    @Autowired
+    private UserQueueService userQueueService;
+
+    @Autowired
+    private WaiterEventService waiterEventService;
+
+    @Autowired
+    private QueueEventHub queueEventHub;
+
+    @BeforeEach
+    public void beforeEach() {
+        reactiveRedisTemplate.getConnectionFactory().getReactiveConnection().serverCommands().flushAll().block();
+    }
+
+    @Test
+    void rankIsPushedUntilAdmitted() {
+        Flux.range(100, 3).concatMap(userId -> userQueueService.registerWaitQueue("pushed", userId.longValue())).blockLast();
+
+        StepVerifier.create(waiterEventService.events("pushed", 102L))
+                .expectNextMatches(event -> event instanceof WaiterEvent.Rank rank && rank.rank() == 3)
+                .then(() -> userQueueService.allowUser("pushed", 1L).block())
+                .expectNextMatches(event -> event instanceof WaiterEvent.Rank rank && rank.rank() == 2)
+                .then(() -> userQueueService.allowUser("pushed", 2L).block())
+                .expectNextMatches(event -> event instanceof WaiterEvent.Admitted admitted && !admitted.token().isEmpty())
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void rankIsRereadWhenSomeoneJumpsAhead() {
+        Flux.range(100, 3).concatMap(userId -> userQueueService.registerWaitQueue("skewed", userId.longValue())).blockLast();
+
+        StepVerifier.create(waiterEventService.events("skewed", 102L))
+                .expectNextMatches(event -> event instanceof WaiterEvent.Rank rank && rank.rank() == 3)
+                // 다른 노드의 더 작은 번호표로 나중에 등록한 사용자가 앞에 들어옵니다.
+                .then(() -> reactiveRedisTemplate.opsForZSet().add("users:queue:skewed:wait", "999", 0).block())
+                .then(() -> userQueueService.allowUser("skewed", 3L).block())
+                .expectNextMatches(event -> event instanceof WaiterEvent.Rank rank && rank.rank() == 1)
+                .then(() -> userQueueService.allowUser("skewed", 1L).block())
+                .expectNextMatches(event -> event instanceof WaiterEvent.Admitted)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void departuresAheadAreReflectedFromProgress() {
+        Flux.range(100, 5).concatMap(userId -> userQueueService.registerWaitQueue("departed", userId.longValue())).blockLast();
+
+        StepVerifier.create(waiterEventService.events("departed", 104L))
+                .expectNextMatches(event -> event instanceof WaiterEvent.Rank rank && rank.rank() == 5)
+                // 앞선 사용자들이 이탈한 뒤, 진행 상황의 대기 인원만으로 위치를 보정합니다.
+                .then(() -> reactiveRedisTemplate.opsForZSet().remove("users:queue:departed:wait", "101", "102", "103").block())
+                .then(() -> userQueueService.allowUser("departed", 1L).block())
+                .expectNextMatches(event -> event instanceof WaiterEvent.Rank rank && rank.rank() == 1)
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void notWaitingUserGetsSingleEvent() {
+        StepVerifier.create(waiterEventService.events("pushed-empty", 100L))
+                .expectNextMatches(event -> event instanceof WaiterEvent.Rank rank && rank.rank() == -1)
+                .verifyComplete();
+    }
+
+    @Test
+    void longPollReturnsOnMeaningfulChange() {
+        Flux.range(100, 3).concatMap(userId -> userQueueService.registerWaitQueue("long-poll", userId.longValue())).blockLast();
+        // 진행 상황 채널 구독이 완료된 뒤에 허용하도록, 첫 진행 상황을 받을 때까지 구독을 유지합니다.
+        var subscription = queueEventHub.progress("long-poll").subscribe();
+        queueEventHub.progress("long-poll").blockFirst();
+
+        StepVerifier.create(waiterEventService.awaitRank("long-poll", 102L, 3L, Duration.ofSeconds(5)))
+                .then(() -> userQueueService.allowUser("long-poll", 1L).block())
+                .expectNext(2L)
+                .verifyComplete();
+        subscription.dispose();
+    }
+
+    @Test
+    void longPollReturnsCurrentRankOnTimeout() {
+        Flux.range(100, 3).concatMap(userId -> userQueueService.registerWaitQueue("long-poll-idle", userId.longValue())).blockLast();
+
+        StepVerifier.create(waiterEventService.awaitRank("long-poll-idle", 102L, 3L, Duration.ofMillis(300)))
+                .expectNext(3L)
+                .verifyComplete();
+    }
+}
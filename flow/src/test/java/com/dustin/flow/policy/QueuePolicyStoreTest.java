@@ -0,0 +1,45 @@
+package com.dustin.flow.policy;
+
+import com.dustin.flow.EmbeddedRedis;
+import com.dustin.flow.dto.QueuePolicyRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+@SpringBootTest
+@Import(EmbeddedRedis.class)
+@ActiveProfiles("test")
+class QueuePolicyStoreTest {
+    @Autowired
+    private ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+
+    @Autowired
+    private QueuePolicyStore queuePolicyStore;
+
+    @BeforeEach
+    public void beforeEach() {
+        reactiveRedisTemplate.getConnectionFactory().getReactiveConnection().serverCommands().flushAll().block();
+    }
+
+    @Test
+    void defaultPolicy() {
+        StepVerifier.create(queuePolicyStore.get("no-policy"))
+                .expectNext(new QueuePolicy(10, 10, 1000, Duration.ofSeconds(300), 1, false))
+                .verifyComplete();
+    }
+
+    @Test
+    void updateOnlyGivenFields() {
+        StepVerifier.create(queuePolicyStore.get("event")
+                        .then(queuePolicyStore.update("event", new QueuePolicyRequest(50.0, null, null, 60L, null, null))))
+                .expectNext(new QueuePolicy(50, 10, 1000, Duration.ofSeconds(60), 1, false))
+                .verifyComplete();
+    }
+}
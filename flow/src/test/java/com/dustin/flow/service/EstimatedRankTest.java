@@ -0,0 +1,49 @@
+package com.dustin.flow.service;
+
+import com.dustin.flow.EmbeddedRedis;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+/**
+ * 번호표를 구간 단위로 할당받는 설정(block-size > 1)에서도 추정 순위가 실제 순위와 같은지 확인합니다.
+ */
+@SpringBootTest(properties = "queue.ticket.block-size=100")
+@Import(EmbeddedRedis.class)
+@ActiveProfiles("test")
+class EstimatedRankTest {
+    @Autowired
+    private UserQueueService userQueueService;
+
+    @Autowired
+    private ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+
+    @BeforeEach
+    public void beforeEach() {
+        reactiveRedisTemplate.getConnectionFactory().getReactiveConnection().serverCommands().flushAll().block();
+    }
+
+    @Test
+    void estimatedRankIsExactWithoutDepartures() {
+        // 다시 방문한 사용자(중복 등록)는 번호표를 소모하지 않습니다.
+        StepVerifier.create(Flux.range(100, 5)
+                        .concatMap(userId -> userQueueService.registerWaitQueue("estimated", (long) userId))
+                        .then(userQueueService.enterWaitingRoom("estimated", 101L))
+                        .then(userQueueService.register("estimated", 102L, QueueLaneProperties.GENERAL))
+                        .then(userQueueService.enterWaitingRoom("estimated", 105L))
+                        .then(userQueueService.getRank("estimated", 105L)))
+                .expectNext(6L)
+                .verifyComplete();
+
+        StepVerifier.create(userQueueService.allowUser("estimated", 2L)
+                        .thenMany(Flux.just(102L, 104L, 105L).concatMap(userId -> userQueueService.getRank("estimated", userId))))
+                .expectNext(1L, 3L, 4L)
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,51 @@
+package com.dustin.flow.service;
+
+import com.dustin.flow.exception.ErrorCode;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+/**
+ * 스크립트 도입 이전의 대기열 경로입니다. 성능 비교(벤치마크) 용도로만 테스트 소스에 남겨둡니다.
+ */
+class LegacyUserQueue {
+    private static final String USER_QUEUE_WAIT_KEY = "users:queue:%s:wait";
+
+    private final ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+    private final UserQueueService userQueueService;
+
+    LegacyUserQueue(ReactiveRedisTemplate<String, String> reactiveRedisTemplate, UserQueueService userQueueService) {
+        this.reactiveRedisTemplate = reactiveRedisTemplate;
+        this.userQueueService = userQueueService;
+    }
+
+    /**
+     * 스크립트 도입 이전의 등록 경로입니다. ZADD와 ZRANK를 각각 호출하므로 Redis 왕복이 두 번 발생합니다.
+     * @param queue 등록할 대기열의 이름
+     * @param userId 등록할 사용자의 ID
+     * @return 사용자 순위를 나타내는 Mono<Long>
+     */
+    Mono<Long> registerWaitQueue(final String queue, final Long userId) {
+        var unixTimestamp = Instant.now().getEpochSecond();
+        return reactiveRedisTemplate.opsForZSet().add(USER_QUEUE_WAIT_KEY.formatted(queue), userId.toString(), unixTimestamp)
+                .filter(i -> i)
+                .switchIfEmpty(Mono.error(ErrorCode.QUEUE_ALREADY_REGISTERED_USER.build()))
+                .flatMap(i -> reactiveRedisTemplate.opsForZSet().rank(USER_QUEUE_WAIT_KEY.formatted(queue), userId.toString()))
+                .map(i -> i >= 0 ? i + 1 : i);
+    }
+
+    /**
+     * 스크립트 도입 이전의 대기실 판단 경로입니다. 등록을 시도하고, 이미 등록된 경우 발생한 예외를 잡아 순위를 다시 조회합니다.
+     * 다시 방문한 사용자에게는 Redis 왕복 두 번과 예외 생성이 발생하며, 허용된 사용자를 구분하지 않습니다.
+     * @param queue 대기열의 이름
+     * @param userId 사용자의 ID
+     * @return 판단 결과를 나타내는 Mono<WaitingRoomEntry>
+     */
+    Mono<WaitingRoomEntry> enterWaitingRoom(final String queue, final Long userId) {
+        return registerWaitQueue(queue, userId)
+                .map(rank -> new WaitingRoomEntry(WaitingRoomEntry.Status.REGISTERED, rank))
+                .onErrorResume(ex -> userQueueService.getRank(queue, userId)
+                        .map(rank -> new WaitingRoomEntry(WaitingRoomEntry.Status.WAITING, rank)));
+    }
+}
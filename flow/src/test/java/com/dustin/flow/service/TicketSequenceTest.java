@@ -0,0 +1,59 @@
+package com.dustin.flow.service;
+
+import com.dustin.flow.EmbeddedRedis;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+@SpringBootTest
+@Import(EmbeddedRedis.class)
+@ActiveProfiles("test")
+class TicketSequenceTest {
+    @Autowired
+    private ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+
+    @BeforeEach
+    public void beforeEach() {
+        reactiveRedisTemplate.getConnectionFactory().getReactiveConnection().serverCommands().flushAll().block();
+    }
+
+    @Test
+    void ticketsComeFromOneBlock() {
+        var sequence = ticketSequence(Duration.ofMinutes(1));
+
+        StepVerifier.create(sequence.next("default").concatWith(sequence.next("default")))
+                .expectNext(1L, 2L)
+                .verifyComplete();
+    }
+
+    @Test
+    void staleBlockIsReplaced() throws InterruptedException {
+        var idleNode = ticketSequence(Duration.ofMillis(50));
+        var busyNode = ticketSequence(Duration.ofMillis(50));
+
+        StepVerifier.create(idleNode.next("default").concatWith(busyNode.next("default")))
+                .expectNext(1L, 101L)
+                .verifyComplete();
+
+        // 오래된 구간의 남은 번호표를 쓰지 않으므로, 나중에 등록한 사용자가 앞서 등록한 사용자보다 앞서지 않습니다.
+        Thread.sleep(100);
+        StepVerifier.create(idleNode.next("default"))
+                .expectNext(201L)
+                .verifyComplete();
+    }
+
+    private TicketSequence ticketSequence(Duration blockMaxAge) {
+        var sequence = new TicketSequence(reactiveRedisTemplate);
+        ReflectionTestUtils.setField(sequence, "blockSize", 100L);
+        ReflectionTestUtils.setField(sequence, "blockMaxAge", blockMaxAge);
+        return sequence;
+    }
+}
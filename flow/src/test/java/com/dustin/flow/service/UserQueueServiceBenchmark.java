@@ -0,0 +1,64 @@
+package com.dustin.flow.service;
+
+import com.dustin.flow.EmbeddedRedis;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.function.BiFunction;
+
+/**
+ * 임베디드 Redis를 대상으로 등록 경로(ZADD + ZRANK 두 번 호출 vs Lua 스크립트 한 번 호출)의 처리량을 비교합니다.
+ * 기본 테스트에서는 제외되며 ./gradlew benchmark 로 실행합니다.
+ */
+@Tag("benchmark")
+@SpringBootTest
+@Import(EmbeddedRedis.class)
+@ActiveProfiles("test")
+class UserQueueServiceBenchmark {
+    private static final int WARMUP_USERS = 5_000;
+    private static final int MEASURED_USERS = 50_000;
+    private static final int CONCURRENCY = 64;
+
+    @Autowired
+    private UserQueueService userQueueService;
+
+    @Autowired
+    private ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+
+    @BeforeEach
+    public void beforeEach() {
+        reactiveRedisTemplate.getConnectionFactory().getReactiveConnection().serverCommands().flushAll().block();
+    }
+
+    @Test
+    void registerWaitQueue() {
+        var twoStep = measure("two-step", new LegacyUserQueue(reactiveRedisTemplate, userQueueService)::registerWaitQueue);
+        var script = measure("script", userQueueService::registerWaitQueue);
+        System.out.printf("registerWaitQueue speedup: %.2fx%n", twoStep.toNanos() / (double) script.toNanos());
+    }
+
+    private Duration measure(String name, BiFunction<String, Long, Mono<Long>> register) {
+        run("warmup-" + name, WARMUP_USERS, register);
+        var started = System.nanoTime();
+        run("bench-" + name, MEASURED_USERS, register);
+        var elapsed = Duration.ofNanos(System.nanoTime() - started);
+        System.out.printf("%-8s %d registrations in %d ms (%.0f ops/s)%n",
+                name, MEASURED_USERS, elapsed.toMillis(), MEASURED_USERS / (elapsed.toNanos() / 1e9));
+        return elapsed;
+    }
+
+    private void run(String queue, int users, BiFunction<String, Long, Mono<Long>> register) {
+        Flux.range(0, users)
+                .flatMap(i -> register.apply(queue, (long) i), CONCURRENCY)
+                .blockLast();
+    }
+}
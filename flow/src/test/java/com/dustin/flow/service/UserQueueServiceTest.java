@@ -10,8 +10,11 @@ import org.springframework.context.annotation.Import;
 import org.springframework.data.redis.connection.ReactiveRedisConnection;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Flux;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
+
 @SpringBootTest
 @Import(EmbeddedRedis.class)
 @ActiveProfiles("test")
@@ -43,6 +46,15 @@ class UserQueueServiceTest {
                 .verifyComplete();
     }
 
+    @Test
+    void registerWaitQueueInArrivalOrder() {
+        StepVerifier.create(userQueueService.registerWaitQueue("default", 100L)
+                        .then(userQueueService.registerWaitQueue("default", 99L))
+                        .then(userQueueService.getRank("default", 99L)))
+                .expectNext(2L)
+                .verifyComplete();
+    }
+
     @Test
     void alreadyRegisterWaitQueue() {
         StepVerifier.create(userQueueService.registerWaitQueue("default", 100L))
@@ -54,6 +66,65 @@ class UserQueueServiceTest {
                 .verify();
     }
 
+    @Test
+    void registerReturnsRankOfAlreadyRegisteredUser() {
+        StepVerifier.create(userQueueService.register("default", 100L, "general")
+                        .then(userQueueService.register("default", 101L, "general"))
+                        .then(userQueueService.register("default", 101L, "vip")))
+                .expectNext(new Registration(false, 2))
+                .verifyComplete();
+    }
+
+    @Test
+    void alreadyRegisterWaitQueueInOtherLane() {
+        StepVerifier.create(userQueueService.registerWaitQueue("default", 100L)
+                        .then(userQueueService.registerWaitQueue("default", 100L, "vip")))
+                .expectError(ApplicationException.class)
+                .verify();
+    }
+
+    @Test
+    void registerWaitQueueInUnknownLane() {
+        StepVerifier.create(userQueueService.registerWaitQueue("default", 100L, "unknown"))
+                .expectError(ApplicationException.class)
+                .verify();
+    }
+
+    @Test
+    void getRankWithLanes() {
+        StepVerifier.create(userQueueService.registerWaitQueue("default", 100L)
+                        .then(userQueueService.registerWaitQueue("default", 101L))
+                        .thenMany(Flux.range(200, 10).concatMap(userId -> userQueueService.registerWaitQueue("default", userId.longValue(), "vip")))
+                        .then())
+                .verifyComplete();
+
+        // vip(가중치 6) 차선에서 general(가중치 1) 1명당 6명이 먼저 허용됩니다.
+        StepVerifier.create(userQueueService.getRank("default", 100L))
+                .expectNext(7L)
+                .verifyComplete();
+        StepVerifier.create(userQueueService.getRank("default", 101L))
+                .expectNext(12L)
+                .verifyComplete();
+        StepVerifier.create(userQueueService.getRank("default", 200L))
+                .expectNext(1L)
+                .verifyComplete();
+    }
+
+    @Test
+    void allowUserByLaneWeight() {
+        StepVerifier.create(Flux.range(100, 10).concatMap(userId -> userQueueService.registerWaitQueue("default", userId.longValue()))
+                        .thenMany(Flux.range(200, 10).concatMap(userId -> userQueueService.registerWaitQueue("default", userId.longValue(), "vip")))
+                        .then(userQueueService.allowUser("default", 7L)))
+                .expectNext(7L)
+                .verifyComplete();
+
+        StepVerifier.create(userQueueService.isAllowed("default", 205L)
+                        .zipWith(userQueueService.isAllowed("default", 100L))
+                        .zipWith(userQueueService.isAllowed("default", 206L)))
+                .expectNextMatches(result -> result.getT1().getT1() && result.getT1().getT2() && !result.getT2())
+                .verifyComplete();
+    }
+
     @Test
     void emptyAllowUser() {
         StepVerifier.create(userQueueService.allowUser("default", 3L))
@@ -81,6 +152,64 @@ class UserQueueServiceTest {
                 .verifyComplete();
     }
 
+    @Test
+    void allowUserMovesToProceed() {
+        StepVerifier.create(userQueueService.registerWaitQueue("default", 100L)
+                        .then(userQueueService.registerWaitQueue("default", 101L))
+                        .then(userQueueService.registerWaitQueue("default", 102L))
+                        .then(userQueueService.allowUser("default", 2L))
+                        .then(userQueueService.isAllowed("default", 101L)))
+                .expectNext(true)
+                .verifyComplete();
+
+        StepVerifier.create(userQueueService.getRank("default", 102L))
+                .expectNext(1L)
+                .verifyComplete();
+    }
+
+    @Test
+    void allowUserWithinCapacity() {
+        StepVerifier.create(userQueueService.registerWaitQueue("default", 100L)
+                        .then(userQueueService.registerWaitQueue("default", 101L))
+                        .then(userQueueService.registerWaitQueue("default", 102L))
+                        .then(userQueueService.allowUser("default", new AdmissionLimit(10, 2, Duration.ofMinutes(5), 0, 0, 0))))
+                .expectNext(2L)
+                .verifyComplete();
+
+        StepVerifier.create(userQueueService.allowUser("default", new AdmissionLimit(10, 2, Duration.ofMinutes(5), 0, 0, 0)))
+                .expectNext(0L)
+                .verifyComplete();
+
+        StepVerifier.create(userQueueService.allowUser("default", new AdmissionLimit(10, 3, Duration.ofMinutes(5), 0, 0, 0)))
+                .expectNext(1L)
+                .verifyComplete();
+    }
+
+    @Test
+    void allowUserWithTokenBucket() {
+        // 초당 1명씩 충전되고 최대 2명까지 쌓이는 버킷
+        var limit = new AdmissionLimit(10, 0, Duration.ofMinutes(5), 1, 2, 0);
+        StepVerifier.create(userQueueService.registerWaitQueue("default", 100L)
+                        .then(userQueueService.registerWaitQueue("default", 101L))
+                        .then(userQueueService.registerWaitQueue("default", 102L))
+                        .then(userQueueService.allowUser("default", limit)))
+                .expectNext(2L)
+                .verifyComplete();
+
+        // 버킷을 모두 사용했으므로 충전되기 전까지는 허용하지 않습니다.
+        StepVerifier.create(userQueueService.allowUser("default", limit))
+                .expectNext(0L)
+                .verifyComplete();
+    }
+
+    @Test
+    void allowUserWithStaleFencingToken() {
+        StepVerifier.create(userQueueService.registerWaitQueue("default", 100L)
+                        .then(userQueueService.allowUser("default", AdmissionLimit.of(10).withFencingToken(1))))
+                .expectNext(0L)
+                .verifyComplete();
+    }
+
     @Test
     void allowUserAfterRegisterWaitQueue() {
         StepVerifier.create(userQueueService.registerWaitQueue("default", 100L)
@@ -93,6 +222,20 @@ class UserQueueServiceTest {
                 .verifyComplete();
     }
 
+    @Test
+    void getActiveQueues() {
+        StepVerifier.create(userQueueService.registerWaitQueue("default", 100L)
+                        .then(userQueueService.registerWaitQueue("other", 100L))
+                        .thenMany(userQueueService.getActiveQueues().sort()))
+                .expectNext("default", "other")
+                .verifyComplete();
+
+        StepVerifier.create(userQueueService.allowUser("other", 1L)
+                        .thenMany(userQueueService.getActiveQueues()))
+                .expectNext("default")
+                .verifyComplete();
+    }
+
     @Test
     void isNotAllowed() {
         StepVerifier.create(userQueueService.isAllowed("default", 100L))
@@ -131,6 +274,25 @@ class UserQueueServiceTest {
                 .verifyComplete();
     }
 
+    @Test
+    void getEstimatedRank() {
+        StepVerifier.create(userQueueService.registerWaitQueue("estimated", 100L)
+                        .then(userQueueService.registerWaitQueue("estimated", 101L))
+                        .then(userQueueService.registerWaitQueue("estimated", 102L))
+                        .then(userQueueService.getRank("estimated", 102L)))
+                .expectNext(3L)
+                .verifyComplete();
+
+        StepVerifier.create(userQueueService.allowUser("estimated", 2L)
+                        .then(userQueueService.getRank("estimated", 102L)))
+                .expectNext(1L)
+                .verifyComplete();
+
+        StepVerifier.create(userQueueService.getRank("estimated", 100L))
+                .expectNext(-1L)
+                .verifyComplete();
+    }
+
     @Test
     void emptyRank() {
         StepVerifier.create(userQueueService.getRank("default", 100L))
@@ -147,15 +309,48 @@ class UserQueueServiceTest {
 
     @Test
     void isAllowedByToken() {
-        StepVerifier.create(userQueueService.isAllowedByToken("default", 100L, "d333a5d4eb24f3f5cdd767d79b8c01aad3cd73d3537c70dec430455d37afe4b8"))
+        StepVerifier.create(userQueueService.generateToken("default", 100L)
+                        .flatMap(token -> userQueueService.isAllowedByToken("default", 100L, token)))
                 .expectNext(true)
                 .verifyComplete();
     }
 
+    @Test
+    void isNotAllowedByTokenOfOtherUser() {
+        StepVerifier.create(userQueueService.generateToken("default", 100L)
+                        .flatMap(token -> userQueueService.isAllowedByToken("default", 101L, token)))
+                .expectNext(false)
+                .verifyComplete();
+    }
+
+    @Test
+    void isNotAllowedByLegacyToken() {
+        StepVerifier.create(userQueueService.isAllowedByToken("default", 100L, "d333a5d4eb24f3f5cdd767d79b8c01aad3cd73d3537c70dec430455d37afe4b8"))
+                .expectNext(false)
+                .verifyComplete();
+    }
+
     @Test
     void generateToken() {
         StepVerifier.create(userQueueService.generateToken("default", 100L))
-                .expectNext("d333a5d4eb24f3f5cdd767d79b8c01aad3cd73d3537c70dec430455d37afe4b8")
+                .expectNextMatches(token -> token.matches("k1\\.\\d+\\.[0-9a-f]{64}"))
+                .verifyComplete();
+    }
+
+    @Test
+    void enterWaitingRoom() {
+        StepVerifier.create(userQueueService.enterWaitingRoom("default", 100L))
+                .expectNext(new WaitingRoomEntry(WaitingRoomEntry.Status.REGISTERED, 1))
+                .verifyComplete();
+
+        StepVerifier.create(userQueueService.enterWaitingRoom("default", 101L)
+                        .then(userQueueService.enterWaitingRoom("default", 101L)))
+                .expectNext(new WaitingRoomEntry(WaitingRoomEntry.Status.WAITING, 2))
+                .verifyComplete();
+
+        StepVerifier.create(userQueueService.allowUser("default", 1L)
+                        .then(userQueueService.enterWaitingRoom("default", 100L)))
+                .expectNext(new WaitingRoomEntry(WaitingRoomEntry.Status.ADMITTED, 0))
                 .verifyComplete();
     }
-}
\ No newline at end of file
+}
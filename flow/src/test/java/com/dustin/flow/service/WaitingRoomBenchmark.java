@@ -0,0 +1,68 @@
+package com.dustin.flow.service;
+
+import com.dustin.flow.EmbeddedRedis;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.function.BiFunction;
+
+/**
+ * 임베디드 Redis를 대상으로 대기실 판단 경로(등록 시도 후 예외 시 순위 조회 vs 스크립트 한 번 호출)의 처리량을 비교합니다.
+ * 대기실 페이지 요청의 Redis 비용은 이 판단이 전부이므로(토큰 검증은 서명만 확인), 페이지 처리량의 차이도 여기서 나옵니다.
+ * 모든 사용자가 한 번 등록된 뒤 새로 고치는 경우(다시 방문한 사용자)를 측정합니다.
+ * 기본 테스트에서는 제외되며 ./gradlew benchmark 로 실행합니다.
+ */
+@Tag("benchmark")
+@SpringBootTest
+@Import(EmbeddedRedis.class)
+@ActiveProfiles("test")
+class WaitingRoomBenchmark {
+    private static final int WARMUP_USERS = 5_000;
+    private static final int MEASURED_USERS = 50_000;
+    private static final int CONCURRENCY = 64;
+
+    @Autowired
+    private UserQueueService userQueueService;
+
+    @Autowired
+    private ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+
+    @BeforeEach
+    public void beforeEach() {
+        reactiveRedisTemplate.getConnectionFactory().getReactiveConnection().serverCommands().flushAll().block();
+    }
+
+    @Test
+    void returningUsers() {
+        var legacy = measure("legacy", new LegacyUserQueue(reactiveRedisTemplate, userQueueService)::enterWaitingRoom);
+        var script = measure("script", userQueueService::enterWaitingRoom);
+        System.out.printf("waiting room speedup for returning users: %.2fx%n", legacy.toNanos() / (double) script.toNanos());
+    }
+
+    private Duration measure(String name, BiFunction<String, Long, Mono<WaitingRoomEntry>> enter) {
+        run("warmup-" + name, WARMUP_USERS, enter);
+        run("warmup-" + name, WARMUP_USERS, enter);
+        run("bench-" + name, MEASURED_USERS, enter); // 처음 방문
+        var started = System.nanoTime();
+        run("bench-" + name, MEASURED_USERS, enter); // 새로 고침
+        var elapsed = Duration.ofNanos(System.nanoTime() - started);
+        System.out.printf("%-8s %d returning visits in %d ms (%.0f ops/s)%n",
+                name, MEASURED_USERS, elapsed.toMillis(), MEASURED_USERS / (elapsed.toNanos() / 1e9));
+        return elapsed;
+    }
+
+    private void run(String queue, int users, BiFunction<String, Long, Mono<WaitingRoomEntry>> enter) {
+        Flux.range(0, users)
+                .flatMap(i -> enter.apply(queue, (long) i), CONCURRENCY)
+                .blockLast();
+    }
+}
@@ -0,0 +1,39 @@
+package com.dustin.flow.token;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class QueueTokenConfigTest {
+
+    private final QueueTokenConfig queueTokenConfig = new QueueTokenConfig();
+
+    @Test
+    void refusesMissingKey() {
+        var properties = properties("");
+        assertThrows(IllegalStateException.class, () -> queueTokenConfig.queueTokenSigner(properties));
+
+        properties.setKeys(Map.of());
+        assertThrows(IllegalStateException.class, () -> queueTokenConfig.queueTokenSigner(properties));
+    }
+
+    @Test
+    void refusesDevelopmentKeyUnlessAllowed() {
+        var properties = properties(QueueTokenProperties.DEVELOPMENT_SECRET);
+        assertThrows(IllegalStateException.class, () -> queueTokenConfig.queueTokenSigner(properties));
+
+        // local, test 프로필처럼 개발용 값을 명시적으로 허용한 경우에만 시작합니다.
+        properties.setAllowDevelopmentKey(true);
+        assertNotNull(queueTokenConfig.queueTokenSigner(properties));
+    }
+
+    private QueueTokenProperties properties(String secret) {
+        var properties = new QueueTokenProperties();
+        properties.setKeys(Map.of("k1", secret));
+        properties.setActiveKeyId("k1");
+        return properties;
+    }
+}
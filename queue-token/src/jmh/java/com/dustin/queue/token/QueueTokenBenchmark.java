@@ -0,0 +1,86 @@
+package com.dustin.queue.token;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 토큰 생성/검증 경로의 호출당 지연 시간과 할당량을 비교합니다.
+ * legacy*는 이전 구현(매 호출 MessageDigest/Mac 생성, String.formatted, 바이트별 String.format)을 그대로 옮긴 기준선입니다.
+ * ./gradlew jmh 로 실행하며, gc 프로파일러의 gc.alloc.rate.norm 값이 호출당 할당 바이트입니다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueueTokenBenchmark {
+    private static final byte[] SECRET = "benchmark-secret".getBytes(StandardCharsets.UTF_8);
+    private static final String QUEUE = "default";
+    private static final long USER_ID = 100L;
+    private static final long EXPIRES_AT = 4_102_444_800L;
+    private static final long NOW = 1_700_000_000L;
+
+    private QueueTokenSigner signer;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        signer = new QueueTokenSigner(Map.of("k1", SECRET), "k1");
+        token = signer.sign(QUEUE, USER_ID, EXPIRES_AT);
+    }
+
+    @Benchmark
+    public String legacyDigestGenerate() throws Exception {
+        var digest = MessageDigest.getInstance("SHA-256");
+        var input = "user-queue-%s-%d".formatted(QUEUE, USER_ID);
+        byte[] encodedHash = digest.digest(input.getBytes(StandardCharsets.UTF_8));
+        var hexString = new StringBuilder();
+        for (byte aByte : encodedHash) {
+            hexString.append(String.format("%02x", aByte));
+        }
+        return hexString.toString();
+    }
+
+    @Benchmark
+    public String legacyHmacGenerate() throws Exception {
+        var mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET, "HmacSHA256"));
+        var signature = mac.doFinal("%s:%d:%d".formatted(QUEUE, USER_ID, EXPIRES_AT).getBytes(StandardCharsets.UTF_8));
+        var hexString = new StringBuilder();
+        for (byte aByte : signature) {
+            hexString.append(String.format("%02x", aByte));
+        }
+        return "%s.%d.%s".formatted("k1", EXPIRES_AT, hexString);
+    }
+
+    @Benchmark
+    public boolean legacyHmacVerify() throws Exception {
+        return legacyHmacGenerate().equalsIgnoreCase(token);
+    }
+
+    @Benchmark
+    public String generate() {
+        return signer.sign(QUEUE, USER_ID, EXPIRES_AT);
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return signer.verify(QUEUE, USER_ID, token, NOW);
+    }
+}
@@ -0,0 +1,63 @@
+package com.dustin.queue.token;
+
+/**
+ * HexCodec은 조회 테이블을 이용해 바이트 배열과 16진수 문자열을 변환합니다.
+ * String.format("%02x") 처럼 바이트마다 객체를 만들지 않으며, 비교는 일치 여부와 관계없이 같은 시간이 걸립니다.
+ */
+public final class HexCodec {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    // 16진수 문자를 값으로 바꾸는 테이블. 16진수가 아닌 문자는 -1입니다.
+    private static final byte[] HEX_VALUES = new byte[128];
+
+    static {
+        java.util.Arrays.fill(HEX_VALUES, (byte) -1);
+        for (int i = 0; i < 16; i++) {
+            HEX_VALUES["0123456789abcdef".charAt(i)] = (byte) i;
+            HEX_VALUES["0123456789ABCDEF".charAt(i)] = (byte) i;
+        }
+    }
+
+    private HexCodec() {
+    }
+
+    /**
+     * bytes를 16진수 문자로 바꾸어 target의 offset 위치부터 기록합니다.
+     * @return 기록을 마친 다음 위치
+     */
+    public static int encode(final byte[] bytes, final int length, final char[] target, int offset) {
+        for (int i = 0; i < length; i++) {
+            target[offset++] = HEX_DIGITS[(bytes[i] >> 4) & 0x0f];
+            target[offset++] = HEX_DIGITS[bytes[i] & 0x0f];
+        }
+        return offset;
+    }
+
+    public static String encode(final byte[] bytes) {
+        var chars = new char[bytes.length * 2];
+        encode(bytes, bytes.length, chars, 0);
+        return new String(chars);
+    }
+
+    /**
+     * hex의 [offset, offset + expected.length * 2) 구간이 expected를 16진수로 표현한 값인지 확인합니다.
+     * 길이가 같다면 첫 번째 불일치 위치와 관계없이 모든 문자를 검사하므로 타이밍으로 서명을 추측할 수 없습니다.
+     */
+    public static boolean constantTimeEquals(final byte[] expected, final int expectedLength, final CharSequence hex, final int offset) {
+        if (hex.length() - offset != expectedLength * 2) {
+            return false;
+        }
+        int diff = 0;
+        for (int i = 0; i < expectedLength; i++) {
+            int high = value(hex.charAt(offset + i * 2));
+            int low = value(hex.charAt(offset + i * 2 + 1));
+            diff |= (high | low) & 0x100; // 16진수가 아닌 문자
+            diff |= ((high << 4) | low) ^ (expected[i] & 0xff);
+        }
+        return diff == 0;
+    }
+
+    private static int value(final char c) {
+        return c < 128 && HEX_VALUES[c] >= 0 ? HEX_VALUES[c] : 0x100;
+    }
+}
@@ -0,0 +1,260 @@
+package com.dustin.queue.token;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * QueueTokenSigner는 대기열 통과 토큰을 HMAC-SHA256으로 서명하고 검증합니다.
+ * 토큰 형식은 "{키 ID}.{만료 시각(epoch seconds)}.{서명(hex)}" 이며,
+ * 서명 대상에는 대기열 이름, 사용자 ID, 만료 시각이 포함됩니다.
+ * 검증은 Redis 조회 없이 CPU 연산만으로 이루어집니다.
+ *
+ * 모든 요청에서 호출되므로, 키별로 초기화된 Mac과 메시지/서명 버퍼를 작은 풀에 두고 재사용하며
+ * 메시지와 토큰 문자열을 직접 조립하여 호출당 할당을 최소화합니다.
+ * 풀은 스레드에 묶이지 않으므로, 요청마다 새 스레드를 만드는 가상 스레드에서도 호출마다 Mac을 복제하지 않습니다.
+ * (ThreadLocal은 오래 사는 플랫폼 스레드 풀에서만 재사용되므로 사용하지 않습니다.)
+ */
+public class QueueTokenSigner {
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int SIGNATURE_LENGTH = 32;
+    private static final int MAX_KEY_ID_LENGTH = 32;
+
+    // 키 ID 순서와 같은 순서로 키별로 초기화된 Mac을 보관합니다. 작업 버퍼는 이 Mac을 복제해 사용합니다.
+    private final String[] keyIds;
+    private final Mac[] prototypes;
+    private final int activeKey;
+
+    // 재사용할 작업 버퍼. 동시에 서명/검증하는 호출 수만큼만 늘어나며, 풀이 가득 차면 반납된 버퍼는 버립니다.
+    private final BlockingQueue<Scratch> pool = new ArrayBlockingQueue<>(Math.max(2, Runtime.getRuntime().availableProcessors() * 2));
+
+    public QueueTokenSigner(final Map<String, byte[]> keys, final String activeKeyId) {
+        if (!keys.containsKey(activeKeyId)) {
+            throw new IllegalArgumentException("Unknown active token key id: " + activeKeyId);
+        }
+        this.keyIds = keys.keySet().toArray(String[]::new);
+        this.prototypes = new Mac[keyIds.length];
+        for (int i = 0; i < keyIds.length; i++) {
+            if (keyIds[i].isEmpty() || keyIds[i].length() > MAX_KEY_ID_LENGTH || keyIds[i].indexOf('.') >= 0) {
+                throw new IllegalArgumentException("Token key id must be 1-%d characters without '.': %s".formatted(MAX_KEY_ID_LENGTH, keyIds[i]));
+            }
+            prototypes[i] = newMac(keys.get(keyIds[i]));
+        }
+        this.activeKey = Arrays.asList(keyIds).indexOf(activeKeyId);
+    }
+
+    /**
+     * 토큰을 발급합니다.
+     * @param queue 대기열의 이름
+     * @param userId 사용자의 ID
+     * @param expiresAt 만료 시각 (epoch seconds)
+     * @return 서명된 토큰
+     */
+    public String sign(final String queue, final long userId, final long expiresAt) {
+        var buffers = acquire();
+        try {
+            mac(buffers, activeKey, queue, userId, expiresAt);
+
+            var keyId = keyIds[activeKey];
+            var chars = buffers.token;
+            keyId.getChars(0, keyId.length(), chars, 0);
+            int position = keyId.length();
+            chars[position++] = '.';
+            position = writeDecimal(expiresAt, chars, position);
+            chars[position++] = '.';
+            position = HexCodec.encode(buffers.signature, SIGNATURE_LENGTH, chars, position);
+            return new String(chars, 0, position);
+        } finally {
+            pool.offer(buffers);
+        }
+    }
+
+    /**
+     * 토큰이 해당 대기열과 사용자에게 발급되었고 아직 만료되지 않았는지 검증합니다.
+     * @param queue 대기열의 이름
+     * @param userId 사용자의 ID
+     * @param token 검증할 토큰
+     * @param now 현재 시각 (epoch seconds)
+     * @return 유효한 토큰이면 true
+     */
+    public boolean verify(final String queue, final long userId, final String token, final long now) {
+        if (token == null) {
+            return false;
+        }
+        int keyEnd = token.indexOf('.');
+        int expiresEnd = keyEnd < 0 ? -1 : token.indexOf('.', keyEnd + 1);
+        if (expiresEnd < 0) {
+            return false;
+        }
+
+        int key = findKey(token, keyEnd);
+        if (key < 0) {
+            return false; // 알 수 없거나 폐기된 키
+        }
+        long expiresAt = parseDecimal(token, keyEnd + 1, expiresEnd);
+        if (expiresAt < now) {
+            return false; // 형식이 잘못되었거나 만료된 토큰
+        }
+
+        var buffers = acquire();
+        try {
+            mac(buffers, key, queue, userId, expiresAt);
+            return HexCodec.constantTimeEquals(buffers.signature, SIGNATURE_LENGTH, token, expiresEnd + 1);
+        } finally {
+            pool.offer(buffers);
+        }
+    }
+
+    private Scratch acquire() {
+        var buffers = pool.poll();
+        return buffers != null ? buffers : new Scratch(prototypes);
+    }
+
+    private int findKey(final String token, final int keyEnd) {
+        for (int i = 0; i < keyIds.length; i++) {
+            if (keyIds[i].length() == keyEnd && token.startsWith(keyIds[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * "{queue}:{userId}:{expiresAt}"를 작업 버퍼에 기록하고 그 HMAC을 서명 버퍼에 계산합니다.
+     */
+    private static void mac(final Scratch buffers, final int key, final String queue, final long userId, final long expiresAt) {
+        var message = buffers.message(queue.length() * 3 + 42); // UTF-8 최대 길이 + 구분자와 숫자 두 개
+        int position = writeUtf8(queue, message, 0);
+        message[position++] = ':';
+        position = writeDecimal(userId, message, position);
+        message[position++] = ':';
+        position = writeDecimal(expiresAt, message, position);
+
+        var mac = buffers.mac(key);
+        mac.update(message, 0, position);
+        try {
+            mac.doFinal(buffers.signature, 0);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static int writeUtf8(final String value, final byte[] target, int position) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                // 비 ASCII 대기열 이름은 드물기 때문에 표준 인코더를 사용합니다.
+                var encoded = value.substring(i).getBytes(StandardCharsets.UTF_8);
+                System.arraycopy(encoded, 0, target, position, encoded.length);
+                return position + encoded.length;
+            }
+            target[position++] = (byte) c;
+        }
+        return position;
+    }
+
+    private static int writeDecimal(long value, final byte[] target, int position) {
+        if (value < 0) {
+            // 음수 ID는 드물기 때문에 표준 변환을 사용합니다.
+            var encoded = Long.toString(value).getBytes(StandardCharsets.US_ASCII);
+            System.arraycopy(encoded, 0, target, position, encoded.length);
+            return position + encoded.length;
+        }
+        int start = position;
+        do {
+            target[position++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        reverse(target, start, position - 1);
+        return position;
+    }
+
+    private static int writeDecimal(long value, final char[] target, int position) {
+        int start = position;
+        do {
+            target[position++] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        for (int i = start, j = position - 1; i < j; i++, j--) {
+            var tmp = target[i];
+            target[i] = target[j];
+            target[j] = tmp;
+        }
+        return position;
+    }
+
+    private static void reverse(final byte[] target, int from, int to) {
+        for (; from < to; from++, to--) {
+            var tmp = target[from];
+            target[from] = target[to];
+            target[to] = tmp;
+        }
+    }
+
+    /**
+     * token[from, to)를 음이 아닌 10진수로 해석합니다. 형식이 잘못되었으면 -1을 반환합니다.
+     */
+    private static long parseDecimal(final String token, final int from, final int to) {
+        if (from >= to || to - from > 18) {
+            return -1L;
+        }
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            char c = token.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1L;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static Mac newMac(final byte[] secret) {
+        try {
+            var mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(secret, ALGORITHM));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 한 번에 한 호출만 사용하는 Mac과 작업 버퍼입니다. Mac은 처음 쓰는 키만 복제합니다.
+     */
+    private static final class Scratch {
+        private final Mac[] prototypes;
+        private final Mac[] macs;
+        private final byte[] signature = new byte[SIGNATURE_LENGTH];
+        private final char[] token = new char[MAX_KEY_ID_LENGTH + 2 + 19 + SIGNATURE_LENGTH * 2];
+        private byte[] message = new byte[128];
+
+        private Scratch(final Mac[] prototypes) {
+            this.prototypes = prototypes;
+            this.macs = new Mac[prototypes.length];
+        }
+
+        private Mac mac(final int key) {
+            if (macs[key] == null) {
+                try {
+                    macs[key] = (Mac) prototypes[key].clone(); // 이미 키로 초기화된 상태를 복제합니다.
+                } catch (CloneNotSupportedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            return macs[key];
+        }
+
+        private byte[] message(final int capacity) {
+            if (message.length < capacity) {
+                message = new byte[capacity];
+            }
+            return message;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.dustin.queue.token;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueueTokenSignerTest {
+    private static final long NOW = 1_700_000_000L;
+
+    private final QueueTokenSigner signer = new QueueTokenSigner(Map.of(
+            "k1", "first-secret".getBytes(StandardCharsets.UTF_8),
+            "k2", "second-secret".getBytes(StandardCharsets.UTF_8)), "k2");
+
+    @Test
+    void verify() {
+        var token = signer.sign("default", 100L, NOW + 300);
+        assertTrue(signer.verify("default", 100L, token, NOW));
+    }
+
+    @Test
+    void expiredToken() {
+        var token = signer.sign("default", 100L, NOW - 1);
+        assertFalse(signer.verify("default", 100L, token, NOW));
+    }
+
+    @Test
+    void otherQueueOrUser() {
+        var token = signer.sign("default", 100L, NOW + 300);
+        assertFalse(signer.verify("other", 100L, token, NOW));
+        assertFalse(signer.verify("default", 101L, token, NOW));
+    }
+
+    @Test
+    void tamperedToken() {
+        var token = signer.sign("default", 100L, NOW + 300);
+        var extended = token.replace("." + (NOW + 300) + ".", "." + (NOW + 3000) + ".");
+        assertFalse(signer.verify("default", 100L, extended, NOW));
+        var lastChar = token.charAt(token.length() - 1);
+        var flipped = token.substring(0, token.length() - 1) + (lastChar == '0' ? '1' : '0');
+        assertFalse(signer.verify("default", 100L, flipped, NOW));
+        assertFalse(signer.verify("default", 100L, "", NOW));
+        assertFalse(signer.verify("default", 100L, "k2.abc.zz", NOW));
+        assertFalse(signer.verify("default", 100L, token.substring(0, token.length() - 2) + "zz", NOW));
+        assertFalse(signer.verify("default", 100L, token + "00", NOW));
+        assertFalse(signer.verify("default", 100L, null, NOW));
+    }
+
+    @Test
+    void rotatedKey() {
+        var previous = new QueueTokenSigner(Map.of("k1", "first-secret".getBytes(StandardCharsets.UTF_8)), "k1");
+        var token = previous.sign("default", 100L, NOW + 300);
+        assertTrue(signer.verify("default", 100L, token, NOW)); // 이전 키로 서명된 토큰도 검증됩니다.
+
+        var retired = new QueueTokenSigner(Map.of("k2", "second-secret".getBytes(StandardCharsets.UTF_8)), "k2");
+        assertFalse(retired.verify("default", 100L, token, NOW)); // 폐기된 키로 서명된 토큰은 거부됩니다.
+    }
+
+    @Test
+    void unknownActiveKey() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new QueueTokenSigner(Map.of("k1", "first-secret".getBytes(StandardCharsets.UTF_8)), "k9"));
+    }
+}
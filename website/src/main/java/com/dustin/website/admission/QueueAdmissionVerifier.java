@@ -0,0 +1,72 @@
+package com.dustin.website.admission;
+
+import com.dustin.queue.token.QueueTokenSigner;
+import com.dustin.website.client.FlowClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+
+/**
+ * QueueAdmissionVerifier는 사용자가 대기열을 통과했는지 토큰으로 확인합니다.
+ * LOCAL 모드에서는 flow 서비스와 같은 키로 토큰 서명을 직접 검증하므로 네트워크 호출이 없고,
+ * REMOTE 모드에서는 FlowClient로 flow 서비스의 API를 호출합니다.
+ */
+@Component
+public class QueueAdmissionVerifier {
+	private static final Logger log = LoggerFactory.getLogger(QueueAdmissionVerifier.class);
+
+	// REMOTE 모드에서 flow 서비스를 호출합니다.
+	private final FlowClient flowClient;
+
+	// LOCAL 모드에서 토큰을 검증합니다. REMOTE 모드에서는 null입니다.
+	private final QueueTokenSigner queueTokenSigner;
+
+	public QueueAdmissionVerifier(QueueTokenProperties properties, FlowClient flowClient) {
+		this.flowClient = flowClient;
+		this.queueTokenSigner = properties.getVerification() == QueueTokenProperties.Verification.LOCAL
+				? createSigner(properties)
+				: null;
+	}
+
+	/**
+	 * 토큰이 해당 대기열과 사용자에게 발급된 유효한 토큰인지 확인합니다.
+	 * flow 서비스 호출이 실패하거나 시간 초과되면 허용되지 않은 것으로 간주합니다.
+	 * @param queue 대기열의 이름
+	 * @param userId 사용자의 ID
+	 * @param token 쿠키에서 가져온 토큰
+	 * @return 대기열을 통과한 사용자이면 true를 담은 Mono<Boolean>
+	 */
+	public Mono<Boolean> isAllowed(String queue, Long userId, String token) {
+		if (queueTokenSigner != null) {
+			return Mono.just(queueTokenSigner.verify(queue, userId, token, Instant.now().getEpochSecond()));
+		}
+		return flowClient.isAllowed(queue, userId, token)
+				.onErrorResume(e -> {
+					log.warn("Failed to verify queue token with flow service: {}", e.toString());
+					return Mono.just(false);
+				});
+	}
+
+	private static QueueTokenSigner createSigner(QueueTokenProperties properties) {
+		if (properties.getKeys().isEmpty()) {
+			throw new IllegalStateException("queue.token.keys must be configured for LOCAL token verification");
+		}
+		var keys = new LinkedHashMap<String, byte[]>();
+		properties.getKeys().forEach((keyId, secret) -> {
+			if (secret == null || secret.isBlank()) {
+				throw new IllegalStateException("queue.token.keys." + keyId + " must not be empty");
+			}
+			if (QueueTokenProperties.DEVELOPMENT_SECRET.equals(secret) && !properties.isAllowDevelopmentKey()) {
+				throw new IllegalStateException("queue.token.keys." + keyId + " must not use the development secret");
+			}
+			keys.put(keyId, secret.getBytes(StandardCharsets.UTF_8));
+		});
+		var activeKeyId = properties.getActiveKeyId() != null ? properties.getActiveKeyId() : keys.keySet().iterator().next();
+		return new QueueTokenSigner(keys, activeKeyId);
+	}
+}
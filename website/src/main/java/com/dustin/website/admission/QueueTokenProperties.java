@@ -0,0 +1,70 @@
+package com.dustin.website.admission;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 대기열 토큰 검증 설정입니다.
+ * keys는 flow 서비스의 queue.token.keys와 같은 값을 사용해야 합니다.
+ */
+@ConfigurationProperties(prefix = "queue.token")
+public class QueueTokenProperties {
+
+	/**
+	 * 토큰 검증 방식
+	 */
+	public enum Verification {
+		// 공유 키로 웹사이트 프로세스 안에서 검증합니다.
+		LOCAL,
+		// flow 서비스의 /api/v1/queue/allowed API를 호출하여 검증합니다.
+		REMOTE
+	}
+
+	// local 프로필의 개발용 비밀 값. 운영 환경에서 이 값으로 검증하면 누구나 만든 토큰이 통과합니다.
+	public static final String DEVELOPMENT_SECRET = "local-development-secret-do-not-use-in-production";
+
+	// 키 ID별 HMAC 비밀 값
+	private Map<String, String> keys = new LinkedHashMap<>();
+
+	// flow 서비스가 서명에 사용하는 키 ID (검증만 하므로 지정하지 않으면 첫 번째 키를 사용합니다)
+	private String activeKeyId;
+
+	private Verification verification = Verification.LOCAL;
+
+	// 개발용 비밀 값을 허용할지 여부 (local, test 프로필에서만 사용합니다)
+	private boolean allowDevelopmentKey = false;
+
+	public Map<String, String> getKeys() {
+		return keys;
+	}
+
+	public void setKeys(Map<String, String> keys) {
+		this.keys = keys;
+	}
+
+	public String getActiveKeyId() {
+		return activeKeyId;
+	}
+
+	public void setActiveKeyId(String activeKeyId) {
+		this.activeKeyId = activeKeyId;
+	}
+
+	public Verification getVerification() {
+		return verification;
+	}
+
+	public void setVerification(Verification verification) {
+		this.verification = verification;
+	}
+
+	public boolean isAllowDevelopmentKey() {
+		return allowDevelopmentKey;
+	}
+
+	public void setAllowDevelopmentKey(boolean allowDevelopmentKey) {
+		this.allowDevelopmentKey = allowDevelopmentKey;
+	}
+}
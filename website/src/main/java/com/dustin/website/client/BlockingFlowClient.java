@@ -0,0 +1,75 @@
+package com.dustin.website.client;
+
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.io.SocketConfig;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+
+/**
+ * 커넥션 풀(Apache HttpClient 5)을 사용하는 RestTemplate 기반 클라이언트입니다.
+ * 구독한 스레드에서 응답을 기다리므로, 요청 스레드가 응답 시간만큼 점유됩니다.
+ */
+public class BlockingFlowClient implements FlowClient, AutoCloseable {
+	private final String baseUrl;
+	private final CloseableHttpClient httpClient;
+	private final RestTemplate restTemplate;
+
+	public BlockingFlowClient(FlowClientProperties properties) {
+		var connectTimeout = Timeout.ofMilliseconds(properties.getConnectTimeout().toMillis());
+		var readTimeout = Timeout.ofMilliseconds(properties.getReadTimeout().toMillis());
+		var keepAlive = TimeValue.ofMilliseconds(properties.getKeepAlive().toMillis());
+
+		var connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+				.setMaxConnTotal(properties.getMaxConnections())
+				.setMaxConnPerRoute(properties.getMaxConnections()) // flow 서비스 하나만 호출합니다.
+				.setDefaultSocketConfig(SocketConfig.custom().setSoTimeout(readTimeout).build())
+				.build();
+		var requestConfig = RequestConfig.custom()
+				.setConnectionRequestTimeout(connectTimeout) // 풀이 가득 찼을 때 기다리는 시간
+				.setConnectTimeout(connectTimeout)
+				.setResponseTimeout(readTimeout)
+				.build();
+
+		this.baseUrl = properties.getBaseUrl();
+		this.httpClient = HttpClients.custom()
+				.setConnectionManager(connectionManager)
+				.setDefaultRequestConfig(requestConfig)
+				.setKeepAliveStrategy((response, context) -> keepAlive)
+				.evictIdleConnections(keepAlive)
+				.build();
+		this.restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+	}
+
+	@Override
+	public Mono<Boolean> isAllowed(String queue, Long userId, String token) {
+		return Mono.fromCallable(() -> {
+			// 외부 API를 호출하기 위한 URI를 생성합니다.
+			var uri = UriComponentsBuilder
+					.fromUriString(baseUrl)
+					.path("/api/v1/queue/allowed") // 허용된 사용자인지 확인하는 API 경로
+					.queryParam("queue", queue)
+					.queryParam("user_id", userId)
+					.queryParam("token", token)
+					.encode()
+					.build()
+					.toUri();
+
+			var response = restTemplate.getForObject(uri, AllowedUserResponse.class);
+			return response != null && Boolean.TRUE.equals(response.allowed());
+		});
+	}
+
+	@Override
+	public void close() throws IOException {
+		httpClient.close();
+	}
+}
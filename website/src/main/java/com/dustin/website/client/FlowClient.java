@@ -0,0 +1,24 @@
+package com.dustin.website.client;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * flow 서비스의 대기열 API를 호출하는 클라이언트입니다.
+ */
+public interface FlowClient {
+
+	/**
+	 * flow 서비스에 토큰이 유효한지 확인합니다.
+	 * @param queue 대기열의 이름
+	 * @param userId 사용자의 ID
+	 * @param token 쿠키에서 가져온 토큰
+	 * @return 대기열을 통과한 사용자이면 true를 담은 Mono<Boolean>
+	 */
+	Mono<Boolean> isAllowed(String queue, Long userId, String token);
+
+	/**
+	 * AllowedUserResponse는 flow 서비스 응답을 나타내는 레코드 클래스입니다.
+	 */
+	record AllowedUserResponse(Boolean allowed) {
+	}
+}
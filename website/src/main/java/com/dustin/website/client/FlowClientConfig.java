@@ -0,0 +1,19 @@
+package com.dustin.website.client;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * flow.client.mode에 따라 FlowClient 구현을 등록합니다.
+ */
+@Configuration
+public class FlowClientConfig {
+
+	@Bean
+	public FlowClient flowClient(FlowClientProperties properties) {
+		return switch (properties.getMode()) {
+			case BLOCKING -> new BlockingFlowClient(properties);
+			case REACTIVE -> new ReactiveFlowClient(properties);
+		};
+	}
+}
@@ -0,0 +1,87 @@
+package com.dustin.website.client;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * flow 서비스 호출 클라이언트 설정입니다.
+ */
+@ConfigurationProperties(prefix = "flow.client")
+public class FlowClientProperties {
+
+	/**
+	 * 클라이언트 종류
+	 */
+	public enum Mode {
+		// 커넥션 풀을 사용하는 RestTemplate. 요청 스레드에서 응답을 기다립니다.
+		BLOCKING,
+		// Reactor Netty 기반 WebClient. 응답을 기다리는 동안 요청 스레드를 점유하지 않습니다.
+		REACTIVE
+	}
+
+	// flow 서비스의 기본 URL
+	private String baseUrl = "http://127.0.0.1:9010";
+
+	private Mode mode = Mode.REACTIVE;
+
+	// 연결 수립 및 풀에서 연결을 얻기까지 기다리는 최대 시간
+	private Duration connectTimeout = Duration.ofSeconds(1);
+
+	// 응답을 기다리는 최대 시간
+	private Duration readTimeout = Duration.ofSeconds(2);
+
+	// 풀에서 유지할 최대 연결 수
+	private int maxConnections = 200;
+
+	// 유휴 연결을 재사용하는 최대 시간
+	private Duration keepAlive = Duration.ofSeconds(30);
+
+	public String getBaseUrl() {
+		return baseUrl;
+	}
+
+	public void setBaseUrl(String baseUrl) {
+		this.baseUrl = baseUrl;
+	}
+
+	public Mode getMode() {
+		return mode;
+	}
+
+	public void setMode(Mode mode) {
+		this.mode = mode;
+	}
+
+	public Duration getConnectTimeout() {
+		return connectTimeout;
+	}
+
+	public void setConnectTimeout(Duration connectTimeout) {
+		this.connectTimeout = connectTimeout;
+	}
+
+	public Duration getReadTimeout() {
+		return readTimeout;
+	}
+
+	public void setReadTimeout(Duration readTimeout) {
+		this.readTimeout = readTimeout;
+	}
+
+	public int getMaxConnections() {
+		return maxConnections;
+	}
+
+	public void setMaxConnections(int maxConnections) {
+		this.maxConnections = maxConnections;
+	}
+
+	public Duration getKeepAlive() {
+		return keepAlive;
+	}
+
+	public void setKeepAlive(Duration keepAlive) {
+		this.keepAlive = keepAlive;
+	}
+}
@@ -0,0 +1,54 @@
+package com.dustin.website.client;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Reactor Netty 커넥션 풀을 사용하는 WebClient 기반 클라이언트입니다.
+ * 응답을 기다리는 동안 스레드를 점유하지 않으므로, flow 서비스가 느려져도 웹사이트의 요청 스레드가 고갈되지 않습니다.
+ */
+public class ReactiveFlowClient implements FlowClient, AutoCloseable {
+	private final ConnectionProvider connectionProvider;
+	private final WebClient webClient;
+
+	public ReactiveFlowClient(FlowClientProperties properties) {
+		this.connectionProvider = ConnectionProvider.builder("flow")
+				.maxConnections(properties.getMaxConnections())
+				.pendingAcquireTimeout(properties.getConnectTimeout()) // 풀이 가득 찼을 때 기다리는 시간
+				.maxIdleTime(properties.getKeepAlive())
+				.build();
+		var httpClient = HttpClient.create(connectionProvider)
+				.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+				.option(ChannelOption.SO_KEEPALIVE, true)
+				.responseTimeout(properties.getReadTimeout());
+
+		this.webClient = WebClient.builder()
+				.baseUrl(properties.getBaseUrl())
+				.clientConnector(new ReactorClientHttpConnector(httpClient))
+				.build();
+	}
+
+	@Override
+	public Mono<Boolean> isAllowed(String queue, Long userId, String token) {
+		return webClient.get()
+				.uri(uriBuilder -> uriBuilder
+						.path("/api/v1/queue/allowed") // 허용된 사용자인지 확인하는 API 경로
+						.queryParam("queue", queue)
+						.queryParam("user_id", userId)
+						.queryParam("token", token)
+						.build())
+				.retrieve()
+				.bodyToMono(AllowedUserResponse.class)
+				.map(response -> Boolean.TRUE.equals(response.allowed()))
+				.defaultIfEmpty(false);
+	}
+
+	@Override
+	public void close() {
+		connectionProvider.dispose();
+	}
+}
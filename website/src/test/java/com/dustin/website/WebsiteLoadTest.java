@@ -0,0 +1,118 @@
+package com.dustin.website;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 느린 flow 서비스를 흉내 낸 서버를 두고, blocking 클라이언트로 "/"에 동시 요청을 보냈을 때
+ * 동시에 처리되는(flow 응답을 기다리는) 최대 요청 수를 플랫폼 스레드와 가상 스레드 모드에서 비교합니다.
+ * 기본 테스트에서는 제외되며 ./gradlew loadTest 로 실행합니다.
+ */
+@Tag("load")
+class WebsiteLoadTest {
+	private static final int CONCURRENT_REQUESTS = 2_000;
+	private static final Duration FLOW_LATENCY = Duration.ofMillis(500);
+
+	@Test
+	void maxInFlightRequests() throws IOException {
+		var flow = new SlowFlowServer(FLOW_LATENCY);
+		try {
+			var platform = measure(flow, false);
+			var virtual = measure(flow, true);
+			System.out.printf("max in-flight requests: platform threads=%d, virtual threads=%d%n", platform, virtual);
+			assertTrue(virtual > platform);
+		} finally {
+			flow.stop();
+		}
+	}
+
+	private int measure(SlowFlowServer flow, boolean virtualThreads) {
+		flow.reset();
+		try (var context = new SpringApplicationBuilder(WebsiteApplication.class).properties(
+				"server.port=0",
+				"spring.threads.virtual.enabled=" + virtualThreads,
+				"queue.token.verification=remote",
+				"flow.client.mode=blocking",
+				"flow.client.base-url=" + flow.baseUrl(),
+				"flow.client.max-connections=" + CONCURRENT_REQUESTS,
+				"flow.client.connect-timeout=30s",
+				"flow.client.read-timeout=30s").run()) {
+			var port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+			var client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+			var started = System.nanoTime();
+			var responses = IntStream.range(0, CONCURRENT_REQUESTS)
+					.mapToObj(i -> client.sendAsync(HttpRequest.newBuilder(URI.create("http://127.0.0.1:%d/?user_id=%d".formatted(port, i))).build(),
+							HttpResponse.BodyHandlers.discarding()))
+					.toArray(CompletableFuture[]::new);
+			CompletableFuture.allOf(responses).join();
+			System.out.printf("virtualThreads=%s: %d requests in %d ms%n",
+					virtualThreads, CONCURRENT_REQUESTS, Duration.ofNanos(System.nanoTime() - started).toMillis());
+			return flow.maxInFlight();
+		}
+	}
+
+	/**
+	 * /api/v1/queue/allowed 요청마다 latency 만큼 지연한 뒤 허용되지 않음으로 응답하고, 동시에 처리 중인 요청 수의 최대값을 기록합니다.
+	 */
+	private static final class SlowFlowServer {
+		private final HttpServer server;
+		private final AtomicInteger inFlight = new AtomicInteger();
+		private final AtomicInteger maxInFlight = new AtomicInteger();
+
+		SlowFlowServer(Duration latency) throws IOException {
+			server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), CONCURRENT_REQUESTS);
+			server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+			server.createContext("/api/v1/queue/allowed", exchange -> {
+				maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+				try {
+					Thread.sleep(latency);
+					var body = "{\"allowed\":false}".getBytes(StandardCharsets.UTF_8);
+					exchange.getResponseHeaders().add("Content-Type", "application/json");
+					exchange.sendResponseHeaders(200, body.length);
+					exchange.getResponseBody().write(body);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} finally {
+					inFlight.decrementAndGet();
+					exchange.close();
+				}
+			});
+			server.start();
+		}
+
+		String baseUrl() {
+			return "http://127.0.0.1:%d".formatted(server.getAddress().getPort());
+		}
+
+		int maxInFlight() {
+			return maxInFlight.get();
+		}
+
+		void reset() {
+			maxInFlight.set(0);
+		}
+
+		void stop() {
+			server.stop(0);
+		}
+	}
+}
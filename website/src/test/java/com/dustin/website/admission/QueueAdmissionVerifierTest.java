@@ -0,0 +1,58 @@
+package com.dustin.website.admission;
+
+import com.dustin.queue.token.QueueTokenSigner;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueueAdmissionVerifierTest {
+
+	@Test
+	void verifyLocally() {
+		var properties = new QueueTokenProperties();
+		properties.setKeys(Map.of("k1", "secret"));
+		var verifier = new QueueAdmissionVerifier(properties, (queue, userId, token) -> Mono.error(new IllegalStateException()));
+
+		var signer = new QueueTokenSigner(Map.of("k1", "secret".getBytes(StandardCharsets.UTF_8)), "k1");
+		var token = signer.sign("default", 100L, Instant.now().getEpochSecond() + 300);
+
+		assertTrue(verifier.isAllowed("default", 100L, token).block());
+		assertFalse(verifier.isAllowed("default", 101L, token).block());
+		assertFalse(verifier.isAllowed("default", 100L, "").block());
+	}
+
+	@Test
+	void localVerificationRequiresKeys() {
+		assertThrows(IllegalStateException.class, () -> new QueueAdmissionVerifier(new QueueTokenProperties(), null));
+	}
+
+	@Test
+	void localVerificationRejectsEmptyOrDevelopmentKey() {
+		var properties = new QueueTokenProperties();
+		properties.setKeys(Map.of("k1", ""));
+		assertThrows(IllegalStateException.class, () -> new QueueAdmissionVerifier(properties, null));
+
+		properties.setKeys(Map.of("k1", QueueTokenProperties.DEVELOPMENT_SECRET));
+		assertThrows(IllegalStateException.class, () -> new QueueAdmissionVerifier(properties, null));
+
+		// local 프로필처럼 개발용 값을 명시적으로 허용한 경우에만 시작합니다.
+		properties.setAllowDevelopmentKey(true);
+		new QueueAdmissionVerifier(properties, null);
+	}
+
+	@Test
+	void remoteFailureIsNotAllowed() {
+		var properties = new QueueTokenProperties();
+		properties.setVerification(QueueTokenProperties.Verification.REMOTE);
+		var verifier = new QueueAdmissionVerifier(properties, (queue, userId, token) -> Mono.error(new IllegalStateException()));
+
+		assertFalse(verifier.isAllowed("default", 100L, "token").block());
+	}
+}